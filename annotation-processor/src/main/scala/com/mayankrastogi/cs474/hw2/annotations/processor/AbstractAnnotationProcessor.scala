@@ -10,11 +10,17 @@ import javax.lang.model.element._
 import javax.lang.model.util.{Elements, Types}
 import javax.tools.Diagnostic
 
+import scala.collection.mutable
 import scala.jdk.CollectionConverters._
 
 /**
  * Provides helper methods and convenience methods that can be used by child annotation processors for performing
  * common tasks and easily print logs at the required level.
+ *
+ * This class also takes care of javac's processing rounds. Rounds that contain none of the supported annotations are
+ * skipped, the elements of every other round are handed to [[processRound()]], and [[processingOver()]] is invoked
+ * once all rounds are over, so that checks which depend on elements generated in later rounds can be deferred until
+ * then.
  */
 abstract class AbstractAnnotationProcessor extends AbstractProcessor {
 
@@ -31,6 +37,10 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
   private var messager: Messager = _
   private var debug = false
 
+  // The elements of the annotation types, which are looked up again in every round since elements must not be reused
+  // across rounds
+  private val annotationTypeElements = mutable.Map.empty[Class[_ <: Annotation], TypeElement]
+
   override def init(processingEnv: ProcessingEnvironment): Unit = {
     super.init(processingEnv)
 
@@ -40,6 +50,39 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
     debug = processingEnv.getOptions.containsKey(DEBUG_OPTION_NAME)
   }
 
+  override def process(annotations: util.Set[_ <: TypeElement], roundEnv: RoundEnvironment): Boolean = {
+    debug(s"process(annotations: $annotations, roundEnv: $roundEnv)")
+    annotationTypeElements.clear()
+
+    if (roundEnv.processingOver) {
+      processingOver()
+    }
+    else if (annotations.isEmpty) {
+      debug("No supported annotations in this round. Nothing to process.")
+      false
+    }
+    else {
+      processRound(annotations, roundEnv)
+    }
+  }
+
+  /**
+   * Processes the elements of a round which contains at least one of the supported annotations.
+   *
+   * @param annotations The supported annotation types present in this round.
+   * @param roundEnv    The environment for information about the current round.
+   * @return `true` if the elements in this round were processed successfully, `false` otherwise.
+   */
+  protected def processRound(annotations: util.Set[_ <: TypeElement], roundEnv: RoundEnvironment): Boolean
+
+  /**
+   * Invoked once, after the last round of processing, to perform checks that were deferred until all the elements,
+   * including those generated by other annotation processors, became available.
+   *
+   * @return `true` if the deferred checks were successful, `false` otherwise.
+   */
+  protected def processingOver(): Boolean = true
+
   override def getSupportedAnnotationTypes: util.Set[String] = {
     // Get the annotations specified in @SupportedAnnotationTypes, if present on the annotation processor
     val supportedAnnotationTypesAnnotation = getClass.getAnnotation(classOf[SupportedAnnotationTypes])
@@ -65,9 +108,11 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
   override def getSupportedOptions: util.Set[String] = Set(DEBUG_OPTION_NAME).asJava
 
   override def getSupportedSourceVersion: SourceVersion = {
-    // If a value is specified in @SupportedSourceVersion, use that value, else default to SourceVersion.RELEASE_11
+    // If a value is specified in @SupportedSourceVersion, use that value, else default to the latest version supported
+    // by the compiler running this processor. The processor only inspects declarations, so it is not tied to any
+    // particular language level.
     val sourceVersionAnnotation = getClass.getAnnotation(classOf[SupportedSourceVersion])
-    if (sourceVersionAnnotation == null) SourceVersion.RELEASE_11 else sourceVersionAnnotation.value
+    if (sourceVersionAnnotation == null) SourceVersion.latestSupported else sourceVersionAnnotation.value
   }
 
   // ===================================================================================================================
@@ -96,6 +141,32 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
     result
   }
 
+  /**
+   * Gets a name for the specified `element` that stays the same across rounds, unlike the [[Element]] object itself.
+   *
+   * @param element The [[Element]] whose name is required.
+   * @return The fully qualified name of the `element` if it is a [[TypeElement]], its string representation otherwise.
+   */
+  private[processor] def qualifiedName(element: Element): String = element match {
+    case typeElement: TypeElement => typeElement.getQualifiedName.toString
+    case _ => element.toString
+  }
+
+  /**
+   * Tells whether the annotation of the specified type is applied on the supplied `element`.
+   *
+   * Unlike checking `element.getAnnotation(annotationClass) != null`, this does not create an instance of the
+   * annotation, which javac builds through reflection on every call.
+   *
+   * @param element         The [[Element]] to check.
+   * @param annotationClass The [[Class]] of the annotation.
+   * @return `true` if the `element` is annotated with the annotation of `annotationClass`, `false` otherwise.
+   */
+  private[processor] def isAnnotatedWith(element: Element, annotationClass: Class[_ <: Annotation]): Boolean = {
+    val annotationElement = annotationTypeElement(annotationClass)
+    element.getAnnotationMirrors.asScala.exists(_.getAnnotationType.asElement == annotationElement)
+  }
+
   /**
    * Extracts the `value()` property as a [[String]] from the annotation of the specified type, applied on the supplied
    * `element`.
@@ -124,6 +195,22 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
     if (annotationMirror.isDefined) getAnnotationValueAsType(annotationMirror.get, "value") else null
   }
 
+  /**
+   * Extracts the value of the property with the given `name` from the annotation of the specified type, applied on the
+   * supplied `element`.
+   *
+   * @param element         The [[Element]] that is annotated with the annotation of `annotationClass`.
+   * @param annotationClass The [[Class]] of the annotation whose property will be returned.
+   * @param name            The name of the property, defined in the annotation.
+   * @return The value of the property, e.g. a boxed primitive, a [[String]] or a [[TypeMirror]]; [[None]] if the
+   *         annotation is not applied on the `element` or does not define such a property.
+   */
+  private[processor] def getAnnotationPropertyValue(element: Element,
+                                                    annotationClass: Class[_ <: Annotation],
+                                                    name: String): Option[Any] = {
+    getAnnotationMirror(element, annotationClass).flatMap(getAnnotationValue(_, name)).map(_.getValue)
+  }
+
   /**
    * Extracts a value as a [[TypeMirror]] from the specified [[AnnotationMirror]].
    *
@@ -131,12 +218,15 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
    *
    * @param annotationMirror The annotation object from which the the value is to be extracted.
    * @param key              The name of the property, defined in the annotation, which contains the required value.
-   * @return The value stored in the given `key` in the supplied `annotationMirror` as a [[TypeMirror]].
+   * @return The value stored in the given `key` in the supplied `annotationMirror` as a [[TypeMirror]]; `null` if the
+   *         value is not available as a [[TypeMirror]].
    */
   private def getAnnotationValueAsType(annotationMirror: AnnotationMirror, key: String): TypeMirror = {
-    val annotationValue = getAnnotationValue(annotationMirror, key)
-
-    if (annotationValue.isDefined) annotationValue.get.getValue.asInstanceOf[TypeMirror] else null
+    // A class that cannot be resolved yet, e.g. because it is generated in a later round, is not reported as a TypeMirror
+    getAnnotationValue(annotationMirror, key).map(_.getValue) match {
+      case Some(typeMirror: TypeMirror) => typeMirror
+      case _ => null
+    }
   }
 
   /**
@@ -147,16 +237,11 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
    * @return The value stored in the given `key` in the supplied `annotationMirror`.
    */
   private def getAnnotationValue(annotationMirror: AnnotationMirror, name: String): Option[_ <: AnnotationValue] = {
-    val elementValues =
-      elementUtils.getElementValuesWithDefaults(annotationMirror)
-        .asScala
-        .toMap[ExecutableElement, AnnotationValue]
-
-    elementValues
-      .keySet
-      .filter(_.getSimpleName.toString == name)
-      .map(elementValues.get)
-      .head
+    // Scan javac's map through a view instead of copying it into a Scala map
+    elementUtils.getElementValuesWithDefaults(annotationMirror)
+      .entrySet.asScala
+      .find(_.getKey.getSimpleName.contentEquals(name))
+      .map(_.getValue)
   }
 
   /**
@@ -169,16 +254,32 @@ abstract class AbstractAnnotationProcessor extends AbstractProcessor {
    * @return The instance of the `annotationClass` applied on the specified `element`.
    */
   private def getAnnotationMirror(element: Element, annotationClass: Class[_ <: Annotation]): Option[_ <: AnnotationMirror] = {
+    // Compare the elements of the annotation types rather than their names, which javac builds anew on every call
+    val annotationElement = annotationTypeElement(annotationClass)
     element
       .getAnnotationMirrors.asScala
-      .find(_.getAnnotationType.toString == annotationClass.getName)
+      .find(_.getAnnotationType.asElement == annotationElement)
+  }
+
+  /**
+   * @return The element of the specified annotation type in the current round, or `null` if it cannot be found.
+   */
+  private def annotationTypeElement(annotationClass: Class[_ <: Annotation]): TypeElement = {
+    annotationTypeElements.getOrElseUpdate(annotationClass,
+      elementUtils.getTypeElement(annotationClass.getCanonicalName))
   }
 
   // ===================================================================================================================
   // Helpers for printing diagnostic messages during annotation processing
   // ===================================================================================================================
 
-  private[processor] def debug(message: String, element: Element = null): Unit = {
+  /**
+   * Logs a debug message, if debugging mode is switched on.
+   *
+   * The `message` is passed by name so that it is not built at all when debugging mode is off, since debug messages
+   * often embed the string representation of whole sets of elements.
+   */
+  private[processor] def debug(message: => String, element: Element = null): Unit = {
     if (debug) sendDiagnostic(Diagnostic.Kind.OTHER, "[DEBUG]" + message, element)
   }
 
@@ -0,0 +1,15 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor
+
+/**
+ * Verifies the correct usage of the annotations of all the supported design patterns in a single traversal per round.
+ */
+class DesignPatternAnnotationProcessor extends PatternRuleProcessor(DesignPatternAnnotationProcessor.patterns)
+
+object DesignPatternAnnotationProcessor {
+
+  /**
+   * The design patterns verified by the [[DesignPatternAnnotationProcessor]]. The rules of a new design pattern only
+   * need to be declared and added here.
+   */
+  val patterns: Seq[Pattern] = Seq(IteratorPattern.pattern)
+}
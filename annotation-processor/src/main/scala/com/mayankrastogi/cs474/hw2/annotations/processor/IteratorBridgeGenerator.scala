@@ -0,0 +1,380 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor
+
+import java.io.IOException
+import java.lang.annotation.Annotation
+
+import com.mayankrastogi.cs474.hw2.annotations.{IterableAggregate, Iterator}
+import javax.annotation.processing.ProcessingEnvironment
+import javax.lang.model.`type`.{DeclaredType, ExecutableType, PrimitiveType, TypeKind, TypeMirror}
+import javax.lang.model.element._
+import javax.lang.model.util.ElementFilter
+import javax.tools.Diagnostic
+
+import scala.jdk.CollectionConverters._
+import scala.util.Using
+
+/**
+ * Generates bridges from the annotated protocol of the Iterator design pattern to the interfaces of the Java
+ * collections framework, so that iterators and aggregates which follow the pattern can be used with for-each loops,
+ * streams and other libraries without hand-written adapters.
+ *
+ * For every verified @[[Iterator]] class that does not already implement [[java.util.Iterator]], a final class is
+ * generated in the same package, which is named after the flattened name of the iterator followed by `Bridge`, e.g.
+ * `Tree_TreeIteratorBridge` for `Tree.TreeIterator`. It implements [[java.util.Iterator]] by calling the methods
+ * annotated with @[[Iterator.IsDone]] and @[[Iterator.NextItem]] directly. Iterators over `int`, `long` or `double`
+ * values implement the matching [[java.util.PrimitiveIterator]] instead, so that the values are not boxed.
+ *
+ * For every verified @[[IterableAggregate]] class that does not already implement [[java.lang.Iterable]], a class is
+ * generated which is named after the aggregate followed by `Iterables`, e.g. `TreeIterables`. It has a static method
+ * for every @[[IterableAggregate.IteratorFactory]] method whose iterator has a bridge, which returns an
+ * [[java.lang.Iterable]] over the aggregate.
+ *
+ * Iterators whose protocol cannot be called from a bridge, e.g. because an annotated method is private or throws
+ * checked exceptions, are skipped.
+ */
+object IteratorBridgeGenerator extends SourceGenerator {
+
+  private val BRIDGE_SUFFIX = "Bridge"
+  private val ITERABLES_SUFFIX = "Iterables"
+  private val GENERATED_ANNOTATION_NAME = "javax.annotation.processing.Generated"
+
+  /**
+   * How a bridge implements [[java.util.Iterator]] for the items of an iterator.
+   *
+   * @param interface    The interface implemented by the bridge.
+   * @param itemType     The type returned by the `next` method of the interface.
+   * @param nextMethod   The name of the `next` method of the interface.
+   * @param consumerType The type of the action accepted by `forEachRemaining`.
+   */
+  private case class BridgeInterface(interface: String, itemType: String, nextMethod: String, consumerType: String)
+
+  /**
+   * A bridge generated for an iterator.
+   *
+   * @param name      The qualified name of the bridge.
+   * @param isGeneric Whether the bridge declares any type parameters.
+   */
+  private case class Bridge(name: String, isGeneric: Boolean)
+
+  override def generate(types: Seq[TypeElement], processingEnv: ProcessingEnvironment): Unit = {
+    // Bridges for iterators are generated first, so that aggregates of the same round can refer to them
+    val iterators =
+      types
+        .filter(_.getAnnotation(classOf[Iterator]) != null)
+        .filter(canBridge(_, processingEnv))
+    iterators.foreach(writeIteratorBridge(_, processingEnv))
+
+    val bridgedIterators = iterators.map(qualifiedName(_, BRIDGE_SUFFIX, processingEnv)).toSet
+
+    types
+      .filter(_.getAnnotation(classOf[IterableAggregate]) != null)
+      .filter(aggregate => isAccessible(aggregate) && hasUniqueTypeParameterNames(aggregate))
+      .filterNot(implements(_, classOf[java.lang.Iterable[_]], processingEnv))
+      .foreach(writeIterables(_, bridgedIterators, processingEnv))
+  }
+
+  // ===================================================================================================================
+  // Bridges for iterators
+  // ===================================================================================================================
+
+  private def canBridge(iterator: TypeElement, processingEnv: ProcessingEnvironment): Boolean = {
+    isAccessible(iterator) &&
+      hasUniqueTypeParameterNames(iterator) &&
+      !implements(iterator, classOf[java.util.Iterator[_]], processingEnv) &&
+      Seq(classOf[Iterator.IsDone], classOf[Iterator.NextItem]).forall { annotation =>
+        annotatedMethod(iterator, annotation).exists(isCallable(_, processingEnv))
+      }
+  }
+
+  private def writeIteratorBridge(iterator: TypeElement, processingEnv: ProcessingEnvironment): Unit = {
+    val isDone = annotatedMethod(iterator, classOf[Iterator.IsDone]).get.getSimpleName
+    val nextItem = annotatedMethod(iterator, classOf[Iterator.NextItem]).get.getSimpleName
+    val bridgeInterface = bridgeInterfaceFor(annotatedMethod(iterator, classOf[Iterator.NextItem]).get.getReturnType,
+      processingEnv)
+
+    val bridgeName = flatName(iterator) + BRIDGE_SUFFIX
+    val typeParameters = declareTypeParameters(typeParametersInScope(iterator))
+    val iteratorType = iterator.asType.toString
+    val modifier = if (isPublic(iterator)) "public " else ""
+    val classDeclaration = s"${modifier}final class $bridgeName$typeParameters implements ${bridgeInterface.interface}"
+
+    writeSourceFile(qualifiedName(iterator, BRIDGE_SUFFIX, processingEnv), iterator, processingEnv,
+      s"""${packageDeclaration(iterator, processingEnv)}/**
+         | * Bridges {@link ${iterator.getQualifiedName}}, which follows the protocol of the {@code @Iterator}
+         | * annotation, to {@link ${bridgeInterface.interface.takeWhile(_ != '<')}}.
+         | */
+         |${generatedAnnotation(processingEnv)}$classDeclaration {
+         |    private final $iteratorType iterator;
+         |
+         |    ${modifier}$bridgeName($iteratorType iterator) {
+         |        this.iterator = java.util.Objects.requireNonNull(iterator);
+         |    }
+         |
+         |    @Override
+         |    public boolean hasNext() {
+         |        return !iterator.$isDone();
+         |    }
+         |
+         |    @Override
+         |    public ${bridgeInterface.itemType} ${bridgeInterface.nextMethod}() {
+         |        if (iterator.$isDone()) throw new java.util.NoSuchElementException();
+         |        return iterator.$nextItem();
+         |    }
+         |
+         |    @Override
+         |    public void forEachRemaining(${bridgeInterface.consumerType} action) {
+         |        java.util.Objects.requireNonNull(action);
+         |        while (!iterator.$isDone()) action.accept(iterator.$nextItem());
+         |    }
+         |}
+         |""".stripMargin)
+  }
+
+  private def bridgeInterfaceFor(itemType: TypeMirror, processingEnv: ProcessingEnvironment): BridgeInterface =
+    itemType.getKind match {
+      case TypeKind.INT =>
+        BridgeInterface("java.util.PrimitiveIterator.OfInt", "int", "nextInt", "java.util.function.IntConsumer")
+      case TypeKind.LONG =>
+        BridgeInterface("java.util.PrimitiveIterator.OfLong", "long", "nextLong", "java.util.function.LongConsumer")
+      case TypeKind.DOUBLE =>
+        BridgeInterface("java.util.PrimitiveIterator.OfDouble", "double", "nextDouble",
+          "java.util.function.DoubleConsumer")
+      case _ =>
+        val boxedType = boxed(itemType, processingEnv)
+        BridgeInterface(s"java.util.Iterator<$boxedType>", boxedType, "next",
+          s"java.util.function.Consumer<? super $boxedType>")
+    }
+
+  // ===================================================================================================================
+  // Iterables for aggregates
+  // ===================================================================================================================
+
+  private def writeIterables(aggregate: TypeElement,
+                             bridgedIterators: Set[String],
+                             processingEnv: ProcessingEnvironment): Unit = {
+    val factories =
+      ElementFilter.methodsIn(aggregate.getEnclosedElements).asScala.toSeq
+        .filter(_.getAnnotation(classOf[IterableAggregate.IteratorFactory]) != null)
+        .filter(factory => !factory.getModifiers.contains(Modifier.STATIC) && isCallable(factory, processingEnv))
+        .flatMap(factory => bridgeFor(factory, aggregate, bridgedIterators, processingEnv).map(factory -> _))
+
+    if (factories.nonEmpty) {
+      val iterablesName = flatName(aggregate) + ITERABLES_SUFFIX
+      val modifier = if (isPublic(aggregate)) "public " else ""
+      val methods = factories.map { case (factory, bridge) =>
+        iterableMethod(aggregate, factory, bridge, modifier, processingEnv)
+      }
+
+      writeSourceFile(qualifiedName(aggregate, ITERABLES_SUFFIX, processingEnv), aggregate, processingEnv,
+        s"""${packageDeclaration(aggregate, processingEnv)}/**
+           | * Provides the iterators created by the {@code @IteratorFactory} methods of
+           | * {@link ${aggregate.getQualifiedName}} as {@link java.lang.Iterable}s.
+           | */
+           |${generatedAnnotation(processingEnv)}${modifier}final class $iterablesName {
+           |
+           |    private $iterablesName() {
+           |    }
+           |${methods.mkString}}
+           |""".stripMargin)
+    }
+  }
+
+  private def iterableMethod(aggregate: TypeElement,
+                             factory: ExecutableElement,
+                             bridge: Bridge,
+                             modifier: String,
+                             processingEnv: ProcessingEnvironment): String = {
+    val typeUtils = processingEnv.getTypeUtils
+
+    // The type of the items as seen by the aggregate, e.g. `Node<T>` for a factory returning `Tree<T>.TreeIterator`
+    val iteratorType = factory.getReturnType.asInstanceOf[DeclaredType]
+    val nextItem = annotatedMethod(iteratorType.asElement.asInstanceOf[TypeElement], classOf[Iterator.NextItem]).get
+    val itemType = boxed(typeUtils.asMemberOf(iteratorType, nextItem).asInstanceOf[ExecutableType].getReturnType,
+      processingEnv)
+
+    val parameters = factory.getParameters.asScala.toSeq
+    val parameterNames = parameters.map(_.getSimpleName.toString)
+    // The aggregate is passed as the first parameter, whose name must not clash with those of the factory
+    val aggregateName = LazyList.iterate("aggregate")("_" + _).find(!parameterNames.contains(_)).get
+    val declaredParameters =
+      (s"final ${aggregate.asType} $aggregateName" +:
+        parameters.map(parameter => s"final ${parameter.asType} ${parameter.getSimpleName}")).mkString(", ")
+    val erasedParameterTypes = parameters.map(parameter => typeUtils.erasure(parameter.asType)).mkString(", ")
+
+    val typeParameters = declareTypeParameters(typeParametersInScope(aggregate)) match {
+      case "" => ""
+      case declaration => declaration + " "
+    }
+    val factoryName = factory.getSimpleName
+    val bridgeConstructor = bridge.name + (if (bridge.isGeneric) "<>" else "")
+    val factoryCall = s"$aggregateName.$factoryName(${parameterNames.mkString(", ")})"
+
+    s"""
+       |    /**
+       |     * Returns an {@link java.lang.Iterable} whose iterators are created by
+       |     * {@link ${aggregate.getQualifiedName}#$factoryName($erasedParameterTypes)}.
+       |     */
+       |    ${modifier}static ${typeParameters}java.lang.Iterable<$itemType> $factoryName($declaredParameters) {
+       |        java.util.Objects.requireNonNull($aggregateName);
+       |        return () -> new $bridgeConstructor($factoryCall);
+       |    }
+       |""".stripMargin
+  }
+
+  /**
+   * Finds the bridge for the iterator returned by the given factory method, which may have been generated in this
+   * round, in an earlier round or in an earlier compilation.
+   *
+   * @return The bridge, if there is one which can be used by the aggregate.
+   */
+  private def bridgeFor(factory: ExecutableElement,
+                        aggregate: TypeElement,
+                        bridgedIterators: Set[String],
+                        processingEnv: ProcessingEnvironment): Option[Bridge] = {
+    val elementUtils = processingEnv.getElementUtils
+    val typeUtils = processingEnv.getTypeUtils
+
+    factory.getReturnType match {
+      case returnType: DeclaredType if returnType.asElement.getAnnotation(classOf[Iterator]) != null =>
+        val iterator = returnType.asElement.asInstanceOf[TypeElement]
+        val bridgeName = qualifiedName(iterator, BRIDGE_SUFFIX, processingEnv)
+        val isGeneric = typeParametersInScope(iterator).nonEmpty
+
+        val isRaw = isGeneric && typeUtils.isSameType(returnType, typeUtils.erasure(returnType))
+        val isVisible =
+          isPublic(iterator) || elementUtils.getPackageOf(iterator) == elementUtils.getPackageOf(aggregate)
+        // A bridge generated in this round cannot be looked up yet, but it will be compiled along with the aggregate
+        val bridgeExists = bridgedIterators.contains(bridgeName) || elementUtils.getTypeElement(bridgeName) != null
+
+        if (isRaw || !isVisible || !bridgeExists || !canBridge(iterator, processingEnv)) None
+        else Some(Bridge(bridgeName, isGeneric))
+
+      case _ => None
+    }
+  }
+
+  // ===================================================================================================================
+  // Helpers
+  // ===================================================================================================================
+
+  private def annotatedMethod(element: TypeElement,
+                              annotation: Class[_ <: Annotation]): Option[ExecutableElement] = {
+    ElementFilter.methodsIn(element.getEnclosedElements).asScala.find(_.getAnnotation(annotation) != null)
+  }
+
+  /**
+   * @return `true` if the method can be called from a generated class in the same package without handling checked
+   *         exceptions, `false` otherwise.
+   */
+  private def isCallable(method: ExecutableElement, processingEnv: ProcessingEnvironment): Boolean = {
+    val elementUtils = processingEnv.getElementUtils
+    val typeUtils = processingEnv.getTypeUtils
+    val uncheckedExceptions = Seq(classOf[RuntimeException], classOf[Error])
+      .map(exception => elementUtils.getTypeElement(exception.getCanonicalName).asType)
+
+    !method.getModifiers.contains(Modifier.PRIVATE) &&
+      method.getTypeParameters.isEmpty &&
+      method.getThrownTypes.asScala.forall(thrownType => uncheckedExceptions.exists(typeUtils.isSubtype(thrownType, _)))
+  }
+
+  private def implements(element: TypeElement, interface: Class[_], processingEnv: ProcessingEnvironment): Boolean = {
+    val typeUtils = processingEnv.getTypeUtils
+    val interfaceType = processingEnv.getElementUtils.getTypeElement(interface.getCanonicalName).asType
+    typeUtils.isAssignable(typeUtils.erasure(element.asType), typeUtils.erasure(interfaceType))
+  }
+
+  /**
+   * @return `true` if the type can be referred to from another class in the same package, `false` otherwise.
+   */
+  private def isAccessible(element: TypeElement): Boolean = element.getNestingKind match {
+    case NestingKind.TOP_LEVEL => true
+    case NestingKind.MEMBER =>
+      !element.getModifiers.contains(Modifier.PRIVATE) &&
+        isAccessible(element.getEnclosingElement.asInstanceOf[TypeElement])
+    case _ => false
+  }
+
+  /**
+   * @return `true` if the type can be referred to from any package, `false` otherwise.
+   */
+  private def isPublic(element: TypeElement): Boolean = element.getNestingKind match {
+    case NestingKind.TOP_LEVEL => element.getModifiers.contains(Modifier.PUBLIC)
+    case NestingKind.MEMBER =>
+      element.getModifiers.contains(Modifier.PUBLIC) && isPublic(element.getEnclosingElement.asInstanceOf[TypeElement])
+    case _ => false
+  }
+
+  /**
+   * @return The type parameters which are in scope in the type, i.e. its own and those of the types enclosing it, if it
+   *         is an inner class.
+   */
+  private def typeParametersInScope(element: TypeElement): Seq[TypeParameterElement] = {
+    val enclosingTypeParameters =
+      if (element.getNestingKind == NestingKind.MEMBER && !element.getModifiers.contains(Modifier.STATIC))
+        typeParametersInScope(element.getEnclosingElement.asInstanceOf[TypeElement])
+      else
+        Seq.empty
+
+    enclosingTypeParameters ++ element.getTypeParameters.asScala
+  }
+
+  // A type parameter shadowing another one in scope cannot be declared on a single generated class or method
+  private def hasUniqueTypeParameterNames(element: TypeElement): Boolean = {
+    val names = typeParametersInScope(element).map(_.getSimpleName.toString)
+    names.distinct.size == names.size
+  }
+
+  private def declareTypeParameters(typeParameters: Seq[TypeParameterElement]): String = {
+    if (typeParameters.isEmpty) ""
+    else typeParameters.map { typeParameter =>
+      val bounds = typeParameter.getBounds.asScala.map(_.toString).filterNot(_ == classOf[Object].getCanonicalName)
+      typeParameter.getSimpleName.toString + (if (bounds.isEmpty) "" else bounds.mkString(" extends ", " & ", ""))
+    }.mkString("<", ", ", ">")
+  }
+
+  private def boxed(typeMirror: TypeMirror, processingEnv: ProcessingEnvironment): String = {
+    if (typeMirror.getKind.isPrimitive)
+      processingEnv.getTypeUtils.boxedClass(typeMirror.asInstanceOf[PrimitiveType]).getQualifiedName.toString
+    else
+      typeMirror.toString
+  }
+
+  /**
+   * @return The name of the type, prefixed with the names of the types enclosing it, separated by `_`.
+   */
+  private def flatName(element: TypeElement): String = element.getNestingKind match {
+    case NestingKind.TOP_LEVEL => element.getSimpleName.toString
+    case _ => flatName(element.getEnclosingElement.asInstanceOf[TypeElement]) + "_" + element.getSimpleName
+  }
+
+  private def qualifiedName(element: TypeElement, suffix: String, processingEnv: ProcessingEnvironment): String = {
+    val packageElement = processingEnv.getElementUtils.getPackageOf(element)
+    val simpleName = flatName(element) + suffix
+    if (packageElement.isUnnamed) simpleName else s"${packageElement.getQualifiedName}.$simpleName"
+  }
+
+  private def packageDeclaration(element: TypeElement, processingEnv: ProcessingEnvironment): String = {
+    val packageElement = processingEnv.getElementUtils.getPackageOf(element)
+    if (packageElement.isUnnamed) "" else s"package ${packageElement.getQualifiedName};\n\n"
+  }
+
+  private def generatedAnnotation(processingEnv: ProcessingEnvironment): String = {
+    // The annotation is not available when compiling for Java 8
+    if (processingEnv.getElementUtils.getTypeElement(GENERATED_ANNOTATION_NAME) == null) ""
+    else s"""@$GENERATED_ANNOTATION_NAME("${getClass.getName.stripSuffix("$")}")\n"""
+  }
+
+  private def writeSourceFile(name: String,
+                              originatingElement: Element,
+                              processingEnv: ProcessingEnvironment,
+                              source: String): Unit = {
+    try {
+      Using.resource(processingEnv.getFiler.createSourceFile(name, originatingElement).openWriter)(_.write(source))
+    }
+    catch {
+      case e: IOException =>
+        processingEnv.getMessager.printMessage(Diagnostic.Kind.ERROR, s"Could not generate $name: $e",
+          originatingElement)
+    }
+  }
+}
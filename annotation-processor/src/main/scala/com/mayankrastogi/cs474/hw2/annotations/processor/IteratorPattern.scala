@@ -0,0 +1,73 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor
+
+import com.mayankrastogi.cs474.hw2.annotations.{IterableAggregate, Iterator}
+import javax.lang.model.`type`.TypeKind
+
+/**
+ * The rules for the annotations of the Iterator design pattern, which serve as the reference for declaring the rules of
+ * other design patterns.
+ */
+object IteratorPattern {
+
+  /**
+   * Rules for @[[Iterator]] and its child annotations.
+   */
+  val iteratorRules: Seq[PatternRule] = Seq(
+    TypeRule(
+      classOf[Iterator],
+      members = Seq(
+        MemberCount(classOf[Iterator.CurrentItem], min = 1, max = 1),
+        MemberCount(classOf[Iterator.IsDone], min = 1, max = 1),
+        MemberCount(classOf[Iterator.NextItem], min = 1, max = 1),
+        MemberCount(classOf[Iterator.Advance], min = 0, max = 1)
+      )
+    ),
+    MethodRule(
+      classOf[Iterator.CurrentItem],
+      enclosedIn = classOf[Iterator],
+      returnType = TypeConstraint.EnclosingAnnotationValue
+    ),
+    MethodRule(
+      classOf[Iterator.IsDone],
+      enclosedIn = classOf[Iterator],
+      returnType = TypeConstraint.Primitive(TypeKind.BOOLEAN),
+      warnIfPrivate = true
+    ),
+    MethodRule(
+      classOf[Iterator.NextItem],
+      enclosedIn = classOf[Iterator],
+      returnType = TypeConstraint.EnclosingAnnotationValue,
+      warnIfPrivate = true
+    ),
+    MethodRule(
+      classOf[Iterator.Advance],
+      enclosedIn = classOf[Iterator],
+      returnType = TypeConstraint.EnclosingAnnotationValue,
+      parameters = Some(Seq(TypeConstraint.Primitive(TypeKind.INT))),
+      warnIfPrivate = true
+    )
+  )
+
+  /**
+   * Rules for @[[IterableAggregate]] and its child annotation.
+   */
+  val iterableAggregateRules: Seq[PatternRule] = Seq(
+    TypeRule(
+      classOf[IterableAggregate],
+      members = Seq(MemberCount(classOf[IterableAggregate.IteratorFactory], min = 1)),
+      valueAnnotatedWith = Some(classOf[Iterator])
+    ),
+    MethodRule(
+      classOf[IterableAggregate.IteratorFactory],
+      enclosedIn = classOf[IterableAggregate],
+      returnType = TypeConstraint.EnclosingAnnotationValue,
+      parameters = None
+    )
+  )
+
+  /**
+   * The Iterator design pattern, made up of both its participants, along with the generator of bridges to the Java
+   * collections framework.
+   */
+  val pattern: Pattern = Pattern("Iterator", iteratorRules ++ iterableAggregateRules, Seq(IteratorBridgeGenerator))
+}
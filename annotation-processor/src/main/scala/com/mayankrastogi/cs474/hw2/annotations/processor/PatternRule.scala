@@ -0,0 +1,92 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor
+
+import java.lang.annotation.Annotation
+
+import javax.lang.model.`type`.TypeKind
+import javax.lang.model.element.ElementKind
+
+/**
+ * A design pattern, described by the rules which its annotations must follow.
+ *
+ * @param name       The name of the design pattern, used in diagnostic messages.
+ * @param rules      The rules for the annotations of this design pattern.
+ * @param generators The generators of source files for the types which follow this design pattern correctly.
+ */
+case class Pattern(name: String, rules: Seq[PatternRule], generators: Seq[SourceGenerator] = Seq.empty)
+
+/**
+ * A rule describing the correct usage of an annotation, which is verified by a [[PatternRuleProcessor]] on every
+ * element annotated with it.
+ */
+sealed trait PatternRule {
+  /**
+   * @return The annotation whose usage is described by this rule.
+   */
+  def annotation: Class[_ <: Annotation]
+}
+
+/**
+ * Describes an annotation applied on a type declaration.
+ *
+ * @param annotation         The annotation whose usage is described by this rule.
+ * @param kinds              The kinds of elements on which the annotation can be applied.
+ * @param members            The number of members of the annotated type which must be annotated with other annotations.
+ * @param valueAnnotatedWith If defined, the class specified in the `value()` of the annotation must be annotated with
+ *                           this annotation.
+ */
+case class TypeRule(annotation: Class[_ <: Annotation],
+                    kinds: Set[ElementKind] = Set(ElementKind.CLASS),
+                    members: Seq[MemberCount] = Seq.empty,
+                    valueAnnotatedWith: Option[Class[_ <: Annotation]] = None) extends PatternRule
+
+/**
+ * Describes an annotation applied on a method.
+ *
+ * @param annotation    The annotation whose usage is described by this rule.
+ * @param enclosedIn    The annotation that must be applied on the type enclosing the annotated method.
+ * @param returnType    The constraint on the return type of the annotated method.
+ * @param parameters    If defined, the annotated method must take exactly these parameters, in this order.
+ * @param warnIfPrivate Whether a warning should be issued if the annotated method is `private`. The warning is raised
+ *                      as an error instead, if the annotation applied on the enclosing type has its
+ *                      `treatWarningsAsErrors` property set to `true`.
+ */
+case class MethodRule(annotation: Class[_ <: Annotation],
+                      enclosedIn: Class[_ <: Annotation],
+                      returnType: TypeConstraint = TypeConstraint.Unconstrained,
+                      parameters: Option[Seq[TypeConstraint]] = Some(Seq.empty),
+                      warnIfPrivate: Boolean = false) extends PatternRule
+
+/**
+ * Describes how many members of a type must be annotated with the given annotation.
+ *
+ * @param annotation The annotation applied on the members.
+ * @param min        The minimum number of members annotated with the annotation.
+ * @param max        The maximum number of members annotated with the annotation.
+ */
+case class MemberCount(annotation: Class[_ <: Annotation], min: Int, max: Int = Int.MaxValue)
+
+/**
+ * A constraint on the type of a return value or a parameter of a method.
+ */
+sealed trait TypeConstraint
+
+object TypeConstraint {
+
+  /**
+   * Any type is allowed.
+   */
+  case object Unconstrained extends TypeConstraint
+
+  /**
+   * The type must be the given primitive type. A return type may also be its boxed type.
+   *
+   * @param kind The kind of the primitive type.
+   */
+  case class Primitive(kind: TypeKind) extends TypeConstraint
+
+  /**
+   * The class specified in the `value()` of the annotation applied on the enclosing type, as described by
+   * [[MethodRule.enclosedIn]], must be assignable to the type.
+   */
+  case object EnclosingAnnotationValue extends TypeConstraint
+}
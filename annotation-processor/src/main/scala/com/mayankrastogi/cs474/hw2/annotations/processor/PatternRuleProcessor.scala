@@ -0,0 +1,381 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor
+
+import java.lang.annotation.Annotation
+import java.util
+
+import javax.annotation.processing.RoundEnvironment
+import javax.lang.model.`type`.{TypeKind, TypeMirror}
+import javax.lang.model.element._
+
+import scala.collection.mutable
+import scala.jdk.CollectionConverters._
+
+/**
+ * Verifies the correct usage of the annotations of the given design patterns, by checking every annotated element
+ * against the [[PatternRule]]s declared for its annotations.
+ *
+ * The rules are compiled only once, into a dispatch table which maps the name of each annotation to the checks for its
+ * rules. Each round is then verified in a single traversal of its elements, which runs the checks of every annotation
+ * found on an element, irrespective of the number of patterns being verified.
+ *
+ * Checks which depend on the class specified in the `value()` of an annotation are deferred until processing is over,
+ * if that class cannot be resolved yet, since it may be generated by another annotation processor in a later round.
+ *
+ * Once all the elements of a round are verified successfully, the [[SourceGenerator]]s of the patterns are run on the
+ * types which passed all their checks. This can be switched off by passing the option
+ * `AnnotationProcessor.generateSources=false`, e.g. when the processor is only used for verification.
+ *
+ * @param patterns The design patterns to verify.
+ */
+class PatternRuleProcessor(patterns: Seq[Pattern]) extends AbstractAnnotationProcessor {
+
+  /**
+   * If the annotation processor is passed this option with the value `false`, no source files are generated.
+   */
+  private val GENERATE_SOURCES_OPTION_NAME = "AnnotationProcessor.generateSources"
+
+  /**
+   * The outcome of a check on an element.
+   */
+  private sealed trait CheckResult
+
+  private case object Passed extends CheckResult
+
+  private case object Failed extends CheckResult
+
+  private case object Deferred extends CheckResult
+
+  private type Check = Element => CheckResult
+
+  private val dispatchTable: Map[String, Seq[Check]] =
+    patterns
+      .flatMap(_.rules)
+      .groupBy(_.annotation.getCanonicalName)
+      .map { case (annotationName, rules) => annotationName -> rules.flatMap(compile) }
+
+  // The dispatch table of the current round, keyed by the elements of the annotations instead of their names, so that
+  // looking up the checks of an element does not build the names of its annotations
+  private var roundDispatchTable = Map.empty[Element, Seq[Check]]
+
+  // Locations of the elements, and the checks on them, which are deferred until processing is over
+  private val deferredChecks = mutable.ArrayBuffer.empty[(ElementLocation, Seq[Check])]
+
+  private val generators = patterns.flatMap(_.generators)
+
+  override def getSupportedAnnotations: List[Class[_ <: Annotation]] =
+    patterns.flatMap(_.rules).map(_.annotation).distinct.toList
+
+  override def getSupportedOptions: util.Set[String] =
+    (super.getSupportedOptions.asScala.toSet + GENERATE_SOURCES_OPTION_NAME).asJava
+
+  override protected def processRound(annotations: util.Set[_ <: TypeElement], roundEnv: RoundEnvironment): Boolean = {
+    note("Verifying the " + patterns.map(_.name).mkString(", ") + " design pattern(s)")
+
+    roundDispatchTable = dispatchTable.flatMap { case (annotationName, checks) =>
+      Option(elementUtils.getTypeElement(annotationName)).map(_ -> checks)
+    }
+
+    val verifiedTypes = mutable.ArrayBuffer.empty[TypeElement]
+    // Unlike the checks on an element, the root elements are all verified even if one of them fails, so that the errors
+    // in each source file are reported irrespective of the other files being compiled with it
+    val success = roundEnv.getRootElements.asScala.foldLeft(true) { (success, rootElement) =>
+      verify(rootElement, verifiedTypes) && success
+    }
+    debug("verifiedTypes: " + verifiedTypes)
+
+    val generateSources = !"false".equalsIgnoreCase(processingEnv.getOptions.get(GENERATE_SOURCES_OPTION_NAME))
+    if (success && generateSources) generators.foreach(_.generate(verifiedTypes.toSeq, processingEnv))
+
+    success
+  }
+
+  override protected def processingOver(): Boolean = {
+    debug("deferredChecks: " + deferredChecks)
+
+    deferredChecks.forall { case (location, checks) =>
+      // Look the element up again, since elements from earlier rounds must not be reused in later rounds
+      val element = location.find()
+      debug("Processing deferred checks", element)
+
+      // The element may have been removed by another annotation processor, in which case there is nothing to verify
+      element == null || checks.forall { check =>
+        check(element) match {
+          case Passed => true
+          case Failed => false
+          case Deferred =>
+            error("The value of the annotation on this element could not be resolved", element)
+            false
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs the checks for all the annotations applied on the specified `element`, followed by its enclosed elements.
+   *
+   * @param verifiedTypes The annotated types which passed all their checks, and whose members did as well, without
+   *                      deferring any of them, are added to this buffer.
+   * @return `true` if none of the checks failed, `false` otherwise.
+   */
+  private def verify(element: Element, verifiedTypes: mutable.Buffer[TypeElement]): Boolean = {
+    val checks = checksFor(element)
+    // Most elements are not annotated with any of the annotations of the patterns, and only their members are verified
+    if (checks.isEmpty) return verifyMembers(element, verifiedTypes)
+
+    debug("Processing element", element)
+    val deferredChecksBefore = deferredChecks.size
+
+    // Like `&&`, stop at the first check that fails, but keep track of deferred checks
+    var pendingChecks: mutable.ArrayBuffer[Check] = null
+    val success = checks.forall { check =>
+      check(element) match {
+        case Passed => true
+        case Failed => false
+        case Deferred =>
+          if (pendingChecks == null) pendingChecks = mutable.ArrayBuffer.empty
+          pendingChecks += check
+          true
+      }
+    }
+    debug("Processing successful: " + success)
+
+    if (success && pendingChecks != null) deferredChecks += ElementLocation(element) -> pendingChecks.toSeq
+
+    val membersSuccess = success && verifyMembers(element, verifiedTypes)
+
+    // No checks on the element or its members may have been deferred, for it to be considered verified
+    element match {
+      case typeElement: TypeElement if membersSuccess && deferredChecks.size == deferredChecksBefore =>
+        verifiedTypes += typeElement
+      case _ =>
+    }
+    membersSuccess
+  }
+
+  /**
+   * Only the members of types are traversed, since the enclosed elements of a package are not limited to this round.
+   *
+   * @return `true` if none of the checks on the members failed, `false` otherwise.
+   */
+  private def verifyMembers(element: Element, verifiedTypes: mutable.Buffer[TypeElement]): Boolean = element match {
+    case typeElement: TypeElement => typeElement.getEnclosedElements.asScala.forall(verify(_, verifiedTypes))
+    case _ => true
+  }
+
+  /**
+   * @return The checks for all the annotations applied on the specified `element`, in the order of the annotations.
+   */
+  private def checksFor(element: Element): Seq[Check] = {
+    val annotationMirrors = element.getAnnotationMirrors
+    if (annotationMirrors.isEmpty) return Nil
+
+    // An element rarely has more than one of the annotations, whose checks are then used without being copied
+    var checks: Seq[Check] = Nil
+    annotationMirrors.forEach { annotationMirror =>
+      val annotationChecks = roundDispatchTable.getOrElse(annotationMirror.getAnnotationType.asElement, Nil)
+      if (annotationChecks.nonEmpty) checks = if (checks.isEmpty) annotationChecks else checks ++ annotationChecks
+    }
+    checks
+  }
+
+  // ===================================================================================================================
+  // Compilation of rules into checks
+  // ===================================================================================================================
+
+  private def compile(rule: PatternRule): Seq[Check] = rule match {
+    case TypeRule(annotation, kinds, members, valueAnnotatedWith) =>
+      Seq(assertKind(annotation, kinds)) ++
+        members.map(assertMemberCount(annotation, _)) ++
+        valueAnnotatedWith.map(assertValueIsAnnotatedWith(annotation, _))
+
+    case MethodRule(annotation, enclosedIn, returnType, parameters, warnIfPrivate) =>
+      Seq(assertEnclosedIn(annotation, enclosedIn), assertReturnType(annotation, enclosedIn, returnType)) ++
+        parameters.map(assertParameters(annotation, enclosedIn, _)) ++
+        (if (warnIfPrivate) Seq(warnIfPrivateMethod(annotation, enclosedIn)) else Seq.empty)
+  }
+
+  private def assertKind(annotation: Class[_ <: Annotation], kinds: Set[ElementKind]): Check = element => {
+    debug("assertKind...")
+
+    if (!kinds.contains(element.getKind)) {
+      error(s"Only ${kinds.map(_.toString.toLowerCase).mkString(" or ")} elements can be annotated with " +
+        nameOf(annotation), element)
+      Failed
+    }
+    else Passed
+  }
+
+  private def assertMemberCount(annotation: Class[_ <: Annotation], memberCount: MemberCount): Check = element => {
+    debug("assertMemberCount...")
+
+    val count =
+      element
+        .getEnclosedElements.asScala
+        .count(isAnnotatedWith(_, memberCount.annotation))
+
+    debug(s"Found $count element(s) annotated with ${nameOf(memberCount.annotation)}")
+
+    if (count < memberCount.min || count > memberCount.max) {
+      val quantity =
+        if (memberCount.min == memberCount.max) s"exactly ${memberCount.min}"
+        else if (count < memberCount.min) s"at least ${memberCount.min}"
+        else s"at most ${memberCount.max}"
+
+      error(s"An element annotated with ${nameOf(annotation)} must have $quantity method(s) annotated with " +
+        s"${nameOf(memberCount.annotation)}, but has $count", element)
+      Failed
+    }
+    else Passed
+  }
+
+  private def assertValueIsAnnotatedWith(annotation: Class[_ <: Annotation],
+                                         valueAnnotation: Class[_ <: Annotation]): Check = element => {
+    debug("assertValueIsAnnotatedWith...")
+
+    val annotationValue = getAnnotationValueAsType(element, annotation)
+
+    if (!isResolved(annotationValue)) Deferred
+    // Primitive types do not have an element, and hence cannot be annotated
+    else if (typeUtils.asElement(annotationValue) == null ||
+      !isAnnotatedWith(typeUtils.asElement(annotationValue), valueAnnotation)) {
+      error(s"$annotationValue is not annotated with ${nameOf(valueAnnotation)}. Value of ${nameOf(annotation)} " +
+        s"must be a class annotated with ${nameOf(valueAnnotation)}.", element)
+      Failed
+    }
+    else Passed
+  }
+
+  private def assertEnclosedIn(annotation: Class[_ <: Annotation],
+                               enclosedIn: Class[_ <: Annotation]): Check = element => {
+    debug("assertEnclosedIn...")
+
+    val enclosingElement = element.getEnclosingElement
+    // Since the annotations of methods target METHOD, they must always be enclosed in some element
+    assert(enclosingElement != null)
+
+    if (!isAnnotatedWith(enclosingElement, enclosedIn)) {
+      error(s"A method annotated with ${nameOf(annotation)} must be part of a class annotated with " +
+        nameOf(enclosedIn), element)
+      Failed
+    }
+    else Passed
+  }
+
+  private def assertReturnType(annotation: Class[_ <: Annotation],
+                               enclosedIn: Class[_ <: Annotation],
+                               constraint: TypeConstraint): Check = element => {
+    debug("assertReturnType...")
+
+    val returnType = element.asInstanceOf[ExecutableElement].getReturnType
+    val result = satisfies(returnType, constraint, enclosedIn, element, isReturnType = true)
+
+    if (result == Failed) {
+      error(s"The return type of the method annotated with ${nameOf(annotation)} is `$returnType` but it is expected " +
+        s"to be ${describe(constraint, enclosedIn, element)}.", element)
+    }
+    result
+  }
+
+  private def assertParameters(annotation: Class[_ <: Annotation],
+                               enclosedIn: Class[_ <: Annotation],
+                               constraints: Seq[TypeConstraint]): Check = element => {
+    debug("assertParameters...")
+
+    val parameterTypes = element.asInstanceOf[ExecutableElement].getParameters.asScala.map(_.asType).toSeq
+    val results =
+      if (parameterTypes.size != constraints.size) Seq(Failed)
+      else parameterTypes.zip(constraints).map { case (parameterType, constraint) =>
+        satisfies(parameterType, constraint, enclosedIn, element, isReturnType = false)
+      }
+
+    if (results.contains(Failed)) {
+      val expected =
+        if (constraints.isEmpty) "no parameters"
+        else constraints.map(describe(_, enclosedIn, element)).mkString("parameters of type ", ", ", "")
+
+      error(s"A method annotated with ${nameOf(annotation)} must take $expected", element)
+      Failed
+    }
+    else if (results.contains(Deferred)) Deferred
+    else Passed
+  }
+
+  private def warnIfPrivateMethod(annotation: Class[_ <: Annotation],
+                                  enclosedIn: Class[_ <: Annotation]): Check = element => {
+    debug("warnIfPrivateMethod...")
+
+    // Honour the `treatWarningsAsErrors` property on the enclosing annotation, if it has one
+    val treatWarningsAsErrors =
+      getAnnotationPropertyValue(element.getEnclosingElement, enclosedIn, "treatWarningsAsErrors").contains(true)
+    debug("treatWarningsAsErrors: " + treatWarningsAsErrors)
+
+    val isPrivate = element.getModifiers.contains(Modifier.PRIVATE)
+    if (isPrivate) {
+      withTreatMandatoryWarningsAsErrors(treatWarningsAsErrors) {
+        warning(s"A method annotated with ${nameOf(annotation)} was found to be private", element)
+      }
+    }
+    if (isPrivate && treatWarningsAsErrors) Failed else Passed
+  }
+
+  // ===================================================================================================================
+  // Helpers for evaluating type constraints
+  // ===================================================================================================================
+
+  private def satisfies(actualType: TypeMirror,
+                        constraint: TypeConstraint,
+                        enclosedIn: Class[_ <: Annotation],
+                        element: Element,
+                        isReturnType: Boolean): CheckResult = {
+    val satisfied = constraint match {
+      case TypeConstraint.Unconstrained => true
+      case TypeConstraint.Primitive(kind) =>
+        val expectedType = typeUtils.getPrimitiveType(kind)
+        if (isReturnType) typeUtils.isAssignable(actualType, expectedType)
+        else typeUtils.isSameType(actualType, expectedType)
+      case TypeConstraint.EnclosingAnnotationValue =>
+        val annotationValue = getAnnotationValueAsType(element.getEnclosingElement, enclosedIn)
+        if (!isResolved(annotationValue) || actualType.getKind == TypeKind.ERROR) return Deferred
+        typeUtils.isAssignable(annotationValue, actualType)
+    }
+    if (satisfied) Passed else Failed
+  }
+
+  private def describe(constraint: TypeConstraint, enclosedIn: Class[_ <: Annotation], element: Element): String =
+    constraint match {
+      case TypeConstraint.Unconstrained => "any type"
+      case TypeConstraint.Primitive(kind) => s"`${typeUtils.getPrimitiveType(kind)}`"
+      case TypeConstraint.EnclosingAnnotationValue =>
+        s"`${getAnnotationValueAsClassName(element.getEnclosingElement, enclosedIn)}`"
+    }
+
+  private def isResolved(typeMirror: TypeMirror): Boolean = typeMirror != null && typeMirror.getKind != TypeKind.ERROR
+
+  private def nameOf(annotation: Class[_ <: Annotation]): String = "@" + annotation.getCanonicalName
+
+  /**
+   * Identifies an element in a way that stays the same across rounds, so that it can be looked up again later.
+   *
+   * @param typeName   The qualified name of the element, if it is a type, or of the type enclosing it otherwise.
+   * @param memberName The string representation of the element, if it is not a type, e.g. `next()`.
+   */
+  private case class ElementLocation(typeName: String, memberName: Option[String]) {
+    /**
+     * @return The element, or `null` if it, or the type enclosing it, can no longer be found.
+     */
+    def find(): Element = {
+      val typeElement = elementUtils.getTypeElement(typeName)
+      if (typeElement == null) null
+      else memberName.fold[Element](typeElement) { name =>
+        typeElement.getEnclosedElements.asScala.find(_.toString == name).orNull
+      }
+    }
+  }
+
+  private object ElementLocation {
+    def apply(element: Element): ElementLocation = element match {
+      case typeElement: TypeElement => ElementLocation(qualifiedName(typeElement), None)
+      case _ => ElementLocation(qualifiedName(element.getEnclosingElement), Some(element.toString))
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor
+
+import javax.annotation.processing.ProcessingEnvironment
+import javax.lang.model.element.TypeElement
+
+/**
+ * Generates source files for the types whose annotations were verified by a [[PatternRuleProcessor]], e.g. to bridge a
+ * design pattern to the interfaces of the standard library.
+ *
+ * Generators are declared along with the rules of a [[Pattern]], and must not keep any state, since a pattern may be
+ * shared by several annotation processors and compilations.
+ */
+trait SourceGenerator {
+
+  /**
+   * Generates the source files for the given types, using the [[javax.annotation.processing.Filer]] of the
+   * `processingEnv`.
+   *
+   * @param types         The types which were verified successfully in the current round, along with all of their
+   *                      members, and which carry at least one annotation of the patterns being verified.
+   * @param processingEnv The environment of the annotation processor.
+   */
+  def generate(types: Seq[TypeElement], processingEnv: ProcessingEnvironment): Unit
+}
@@ -0,0 +1,203 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.server
+
+import scala.collection.mutable
+
+/**
+ * A minimal JSON reader and writer, sufficient for exchanging JSON-RPC messages with the [[VerificationServer]].
+ *
+ * JSON values are represented using plain Scala values: objects as `Map[String, Any]`, arrays as `Seq[Any]`, strings as
+ * [[String]], numbers as [[BigDecimal]], booleans as [[Boolean]] and `null` as `null`.
+ */
+object Json {
+
+  /**
+   * Parses the given JSON text.
+   *
+   * @param text The JSON text to parse.
+   * @return The parsed value.
+   * @throws IllegalArgumentException If the text is not valid JSON.
+   */
+  def parse(text: String): Any = {
+    val parser = new Parser(text)
+    val value = parser.parseValue()
+    parser.skipWhitespace()
+    if (!parser.isAtEnd) throw parser.malformed("unexpected trailing characters")
+    value
+  }
+
+  /**
+   * Serializes the given value as JSON text.
+   *
+   * @param value A value made of the types described in the documentation of [[Json]]. Any other [[Iterable]] is
+   *              written as an array, and any other number as a JSON number.
+   * @return The JSON text.
+   */
+  def write(value: Any): String = {
+    val builder = new StringBuilder
+    write(value, builder)
+    builder.toString
+  }
+
+  private def write(value: Any, builder: StringBuilder): Unit = value match {
+    case null => builder ++= "null"
+    case string: String => writeString(string, builder)
+    case boolean: Boolean => builder.append(boolean)
+    case number: BigDecimal => builder ++= number.bigDecimal.toPlainString
+    case number: Number => builder ++= number.toString
+    case map: collection.Map[_, _] =>
+      builder += '{'
+      map.iterator.zipWithIndex.foreach { case ((key, fieldValue), index) =>
+        if (index > 0) builder += ','
+        writeString(key.toString, builder)
+        builder += ':'
+        write(fieldValue, builder)
+      }
+      builder += '}'
+    case iterable: Iterable[_] =>
+      builder += '['
+      iterable.iterator.zipWithIndex.foreach { case (element, index) =>
+        if (index > 0) builder += ','
+        write(element, builder)
+      }
+      builder += ']'
+    case _ => throw new IllegalArgumentException(s"Cannot write a value of ${value.getClass} as JSON")
+  }
+
+  private def writeString(string: String, builder: StringBuilder): Unit = {
+    builder += '"'
+    string.foreach {
+      case '"' => builder ++= "\\\""
+      case '\\' => builder ++= "\\\\"
+      case '\n' => builder ++= "\\n"
+      case '\r' => builder ++= "\\r"
+      case '\t' => builder ++= "\\t"
+      case char if char < ' ' => builder ++= "\\" ++= f"u${char.toInt}%04x"
+      case char => builder += char
+    }
+    builder += '"'
+  }
+
+  /**
+   * A recursive descent parser over the given JSON `text`.
+   */
+  private class Parser(text: String) {
+    private var position = 0
+
+    def isAtEnd: Boolean = position >= text.length
+
+    def skipWhitespace(): Unit = {
+      while (!isAtEnd && Character.isWhitespace(text.charAt(position))) position += 1
+    }
+
+    def malformed(reason: String): IllegalArgumentException =
+      new IllegalArgumentException(s"Malformed JSON at position $position: $reason")
+
+    def parseValue(): Any = {
+      skipWhitespace()
+      if (isAtEnd) throw malformed("unexpected end of input")
+
+      text.charAt(position) match {
+        case '{' => parseObject()
+        case '[' => parseArray()
+        case '"' => parseString()
+        case 't' => parseLiteral("true", true)
+        case 'f' => parseLiteral("false", false)
+        case 'n' => parseLiteral("null", null)
+        case _ => parseNumber()
+      }
+    }
+
+    private def parseObject(): Map[String, Any] = {
+      val fields = mutable.LinkedHashMap.empty[String, Any]
+      expect('{')
+      skipWhitespace()
+      if (!consume('}')) {
+        do {
+          skipWhitespace()
+          val key = parseString()
+          skipWhitespace()
+          expect(':')
+          fields(key) = parseValue()
+          skipWhitespace()
+        } while (consume(','))
+        expect('}')
+      }
+      fields.toMap
+    }
+
+    private def parseArray(): Seq[Any] = {
+      val elements = mutable.ArrayBuffer.empty[Any]
+      expect('[')
+      skipWhitespace()
+      if (!consume(']')) {
+        do {
+          elements += parseValue()
+          skipWhitespace()
+        } while (consume(','))
+        expect(']')
+      }
+      elements.toSeq
+    }
+
+    private def parseString(): String = {
+      val builder = new StringBuilder
+      expect('"')
+      while (!consume('"')) {
+        if (isAtEnd) throw malformed("unterminated string")
+
+        val char = text.charAt(position)
+        position += 1
+        if (char == '\\') {
+          if (isAtEnd) throw malformed("unterminated escape sequence")
+          val escaped = text.charAt(position)
+          position += 1
+          escaped match {
+            case '"' | '\\' | '/' => builder += escaped
+            case 'b' => builder += '\b'
+            case 'f' => builder += '\f'
+            case 'n' => builder += '\n'
+            case 'r' => builder += '\r'
+            case 't' => builder += '\t'
+            case 'u' if position + 4 <= text.length =>
+              builder += Integer.parseInt(text.substring(position, position + 4), 16).toChar
+              position += 4
+            case _ => throw malformed(s"invalid escape sequence \\$escaped")
+          }
+        }
+        else {
+          builder += char
+        }
+      }
+      builder.toString
+    }
+
+    private def parseLiteral(literal: String, value: Any): Any = {
+      if (!text.startsWith(literal, position)) throw malformed(s"expected `$literal`")
+      position += literal.length
+      value
+    }
+
+    private def parseNumber(): BigDecimal = {
+      val start = position
+      while (!isAtEnd && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) position += 1
+      if (start == position) throw malformed(s"unexpected character `${text.charAt(position)}`")
+
+      try BigDecimal(text.substring(start, position))
+      catch {
+        case _: NumberFormatException => throw malformed(s"invalid number `${text.substring(start, position)}`")
+      }
+    }
+
+    private def expect(char: Char): Unit = {
+      if (!consume(char)) throw malformed(s"expected `$char`")
+    }
+
+    private def consume(char: Char): Boolean = {
+      if (!isAtEnd && text.charAt(position) == char) {
+        position += 1
+        true
+      }
+      else false
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.server
+
+import java.io.{BufferedReader, File, InputStreamReader, OutputStreamWriter, PrintWriter}
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+
+import scala.util.Using
+
+/**
+ * A long-lived verification server which lets editors verify source files using the [[VerificationService]], without
+ * paying the startup cost of javac and the annotation processors on every check.
+ *
+ * The server speaks JSON-RPC 2.0 over its standard input and output, with one message per line. It supports the
+ * following methods:
+ *
+ *  - `update`, with params `{"path": "com/example/Foo.java", "text": "..."}`: Updates the contents of an open file and
+ *    verifies it along with the open files affected by the update. The result has the form
+ *    `{"diagnostics": {"<path>": [<diagnostic>, ...]}, "elapsedMillis": 5}` and contains an entry for every verified
+ *    file, where each diagnostic has the form `{"line": 1, "column": 1, "severity": "error", "message": "..."}`.
+ *  - `close`, with params `{"path": "com/example/Foo.java"}`: Closes an open file, so that its saved version is used.
+ *  - `shutdown`: Stops the server.
+ *
+ * Usage: `VerificationServer [--sourcepath <paths>] [--classpath <paths>]`, where each option takes a list of paths
+ * separated by the platform's path separator. Log messages are written to the standard error.
+ */
+object VerificationServer {
+
+  private val PARSE_ERROR = -32700
+  private val INVALID_REQUEST = -32600
+  private val METHOD_NOT_FOUND = -32601
+  private val INVALID_PARAMS = -32602
+  private val INTERNAL_ERROR = -32603
+
+  def main(args: Array[String]): Unit = {
+    val options = args.grouped(2).collect { case Array(name, value) => name -> value }.toMap
+    val sourceRoots = splitPaths(options.getOrElse("--sourcepath", ""))
+    val classPath = splitPaths(options.getOrElse("--classpath", System.getProperty("java.class.path")))
+
+    val in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+    val out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true)
+
+    Using.resource(new VerificationService(sourceRoots, classPath)) { service =>
+      System.err.println(s"Verification server started with source roots $sourceRoots")
+
+      var running = true
+      while (running) {
+        val line = in.readLine()
+        if (line == null) running = false
+        else if (line.trim.nonEmpty) {
+          val (response, shutdown) = handle(service, line)
+          response.foreach(message => out.println(Json.write(message)))
+          running = !shutdown
+        }
+      }
+      System.err.println("Verification server stopped")
+    }
+  }
+
+  /**
+   * Handles a single JSON-RPC message.
+   *
+   * @param service The service to dispatch the requests to.
+   * @param line    The JSON text of the message.
+   * @return The response to send, if the message was not a notification, and whether the server should stop.
+   */
+  private[processor] def handle(service: VerificationService, line: String): (Option[Map[String, Any]], Boolean) = {
+    val request =
+      try Json.parse(line)
+      catch {
+        case e: IllegalArgumentException => return (Some(errorResponse(null, PARSE_ERROR, e.getMessage)), false)
+      }
+
+    request match {
+      case message: Map[String, Any]@unchecked =>
+        val id = message.getOrElse("id", null)
+        // Requests without an id are notifications, which must not be responded to
+        def respond(response: Map[String, Any]): Option[Map[String, Any]] =
+          if (message.contains("id")) Some(response) else None
+
+        val params = message.get("params") match {
+          case Some(params: Map[String, Any]@unchecked) => params
+          case _ => Map.empty[String, Any]
+        }
+
+        try {
+          message.get("method") match {
+            case Some("update") =>
+              val startTime = System.nanoTime
+              val diagnostics = service.update(stringParam(params, "path"), stringParam(params, "text"))
+              val elapsedMillis = (System.nanoTime - startTime) / 1000000
+
+              val result = Map(
+                "diagnostics" -> diagnostics.map { case (path, fileDiagnostics) =>
+                  path -> fileDiagnostics.map { diagnostic =>
+                    Map(
+                      "line" -> diagnostic.line,
+                      "column" -> diagnostic.column,
+                      "severity" -> diagnostic.severity,
+                      "message" -> diagnostic.message
+                    )
+                  }
+                },
+                "elapsedMillis" -> elapsedMillis
+              )
+              (respond(successResponse(id, result)), false)
+
+            case Some("close") =>
+              service.close(stringParam(params, "path"))
+              (respond(successResponse(id, null)), false)
+
+            case Some("shutdown") =>
+              (respond(successResponse(id, null)), true)
+
+            case method =>
+              (respond(errorResponse(id, METHOD_NOT_FOUND, s"Unknown method ${method.orNull}")), false)
+          }
+        }
+        catch {
+          case e: InvalidParamsException => (respond(errorResponse(id, INVALID_PARAMS, e.getMessage)), false)
+          case e: Exception =>
+            e.printStackTrace()
+            (respond(errorResponse(id, INTERNAL_ERROR, e.toString)), false)
+        }
+
+      case _ => (Some(errorResponse(null, INVALID_REQUEST, "A JSON-RPC message must be an object")), false)
+    }
+  }
+
+  private def stringParam(params: Map[String, Any], name: String): String = params.get(name) match {
+    case Some(value: String) => value
+    case _ => throw new InvalidParamsException(s"Missing string parameter `$name`")
+  }
+
+  private def successResponse(id: Any, result: Any): Map[String, Any] =
+    Map("jsonrpc" -> "2.0", "id" -> id, "result" -> result)
+
+  private def errorResponse(id: Any, code: Int, message: String): Map[String, Any] =
+    Map("jsonrpc" -> "2.0", "id" -> id, "error" -> Map("code" -> code, "message" -> message))
+
+  private def splitPaths(paths: String): Seq[Path] =
+    paths.split(File.pathSeparator).toSeq.filter(_.nonEmpty).map(Path.of(_))
+}
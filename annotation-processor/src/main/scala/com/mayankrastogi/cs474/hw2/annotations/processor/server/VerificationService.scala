@@ -0,0 +1,239 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.server
+
+import java.net.URI
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+import java.util.regex.Pattern
+
+import com.mayankrastogi.cs474.hw2.annotations.processor.DesignPatternAnnotationProcessor
+import com.sun.source.tree.ClassTree
+import com.sun.source.util.JavacTask
+import javax.tools._
+
+import scala.collection.mutable
+import scala.jdk.CollectionConverters._
+
+/**
+ * A diagnostic reported while verifying a source file.
+ *
+ * @param path     The path of the source file, relative to the source root if it is open, absolute otherwise.
+ * @param line     The line number of the diagnostic, starting at 1; `-1` if not available.
+ * @param column   The column number of the diagnostic, starting at 1; `-1` if not available.
+ * @param severity Either `error` or `warning`.
+ * @param message  The message of the diagnostic.
+ */
+case class VerificationDiagnostic(path: String, line: Long, column: Long, severity: String, message: String)
+
+/**
+ * Thrown when the [[VerificationService]] is passed an invalid argument by its client, such as a path which does not
+ * denote a Java source file.
+ *
+ * @param message The reason the argument is invalid.
+ */
+class InvalidParamsException(message: String) extends IllegalArgumentException(message)
+
+/**
+ * Verifies open source files with the [[DesignPatternAnnotationProcessor]] on demand, for use by long-lived clients
+ * such as editors.
+ *
+ * The compiler and its file manager are created only once and reused for every verification, so that the cost of
+ * starting them is paid once per session instead of once per check. Each verification runs javac with `-proc:only`,
+ * which stops right after annotation processing, on just the files affected by a change: the changed file itself and
+ * the open files which refer to a type declared in it. Every other file is only read from the source path on demand
+ * to resolve the types used by the affected files.
+ *
+ * The latest contents of the open files are kept in memory, and are served by the file manager ahead of the source
+ * roots, so that they take precedence over their saved versions. The saved files are read again on every verification,
+ * since they can change on disk without their modification time changing.
+ *
+ * @param sourceRoots The directories containing the saved source files of the project.
+ * @param classPath   The class path of the project, which must contain the annotations.
+ */
+class VerificationService(sourceRoots: Seq[Path], classPath: Seq[Path]) extends AutoCloseable {
+
+  private val compiler = ToolProvider.getSystemJavaCompiler
+  private val standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)
+  private val fileManager = new OpenFileManager(standardFileManager)
+
+  // Latest contents and top-level type names of the open files, keyed by their path relative to the source root
+  private val openFiles = mutable.LinkedHashMap.empty[String, OpenFile]
+  private val declaredTypes = mutable.Map.empty[String, Set[String]]
+
+  standardFileManager.setLocationFromPaths(StandardLocation.SOURCE_PATH, sourceRoots.asJava)
+  standardFileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classPath.asJava)
+
+  /**
+   * Updates the contents of a file and verifies it along with the open files affected by the update.
+   *
+   * @param path The path of the file, relative to the source root, e.g. `com/example/Foo.java`.
+   * @param text The latest contents of the file.
+   * @return The diagnostics for each verified file. A verified file without any diagnostics is mapped to an empty list,
+   *         so that clients can clear diagnostics reported for it earlier.
+   * @throws InvalidParamsException If the path is not the relative path of a Java source file.
+   */
+  def update(path: String, text: String): Map[String, Seq[VerificationDiagnostic]] = {
+    val file = new OpenFile(normalize(path), text)
+
+    // Files referring to types which were declared before the update are affected as well, in case they were removed
+    val typesDeclaredInFile = parseDeclaredTypes(file)
+    val changedTypes = declaredTypes.getOrElse(file.path, Set.empty) ++ typesDeclaredInFile
+    openFiles(file.path) = file
+    declaredTypes(file.path) = typesDeclaredInFile
+
+    val affectedFiles =
+      file +: openFiles.values.filter(other => other != file && refersTo(other.text, changedTypes)).toSeq
+    verify(affectedFiles)
+  }
+
+  /**
+   * Closes a file, so that its saved version in the source roots is used from now on.
+   *
+   * @param path The path of the file, relative to the source root.
+   * @throws InvalidParamsException If the path is not the relative path of a Java source file.
+   */
+  def close(path: String): Unit = {
+    val key = normalize(path)
+    openFiles.remove(key)
+    declaredTypes.remove(key)
+  }
+
+  override def close(): Unit = fileManager.close()
+
+  /**
+   * Runs the annotation processors on the specified open files.
+   *
+   * @param files The open files to verify.
+   * @return The diagnostics for each verified file.
+   */
+  private def verify(files: Seq[OpenFile]): Map[String, Seq[VerificationDiagnostic]] = {
+    val diagnostics = new DiagnosticCollector[JavaFileObject]
+
+    // The contents of the saved files are cached by their modification time, which does not change when a file is
+    // saved twice within its resolution, so they are dropped to read the files again
+    fileManager.flush()
+
+    // Only verify the files, without generating any sources into the source roots. The files read from the source path
+    // to resolve types are not processed, so they are not compiled either.
+    val options = List("-proc:only", "-implicit:none", "-AAnnotationProcessor.generateSources=false")
+    val task = compiler.getTask(null, fileManager, diagnostics, options.asJava, null, files.asJava)
+    // The processor keeps state for a compilation, so a new instance is needed every time
+    task.setProcessors(List(new DesignPatternAnnotationProcessor).asJava)
+    task.call()
+
+    val verificationDiagnostics =
+      diagnostics.getDiagnostics.asScala.toSeq
+        .filter(diagnostic => diagnostic.getKind != Diagnostic.Kind.NOTE && diagnostic.getKind != Diagnostic.Kind.OTHER)
+        // Diagnostics about the compilation as a whole cannot be shown in any file
+        .filter(_.getSource != null)
+        .map(toVerificationDiagnostic)
+
+    files.map(file => file.path -> Seq.empty[VerificationDiagnostic]).toMap ++ verificationDiagnostics.groupBy(_.path)
+  }
+
+  private def toVerificationDiagnostic(diagnostic: Diagnostic[_ <: JavaFileObject]): VerificationDiagnostic = {
+    val path = diagnostic.getSource match {
+      case file: OpenFile => file.path
+      case file => Path.of(file.toUri).toString
+    }
+    val severity = if (diagnostic.getKind == Diagnostic.Kind.ERROR) "error" else "warning"
+
+    VerificationDiagnostic(path, diagnostic.getLineNumber, diagnostic.getColumnNumber, severity,
+      diagnostic.getMessage(null))
+  }
+
+  /**
+   * Parses, without attributing, the given file to find the names of the top-level types declared in it.
+   */
+  private def parseDeclaredTypes(file: OpenFile): Set[String] = {
+    val ignoreDiagnostics: DiagnosticListener[JavaFileObject] = _ => ()
+    val task = compiler.getTask(null, fileManager, ignoreDiagnostics, List("-proc:none").asJava, null,
+      List(file).asJava).asInstanceOf[JavacTask]
+
+    task.parse().asScala
+      .flatMap(_.getTypeDecls.asScala)
+      .collect { case classTree: ClassTree => classTree.getSimpleName.toString }
+      .toSet
+  }
+
+  private def refersTo(text: String, typeNames: Set[String]): Boolean =
+    typeNames.exists(typeName => Pattern.compile("\\b" + Pattern.quote(typeName) + "\\b").matcher(text).find)
+
+  /**
+   * Normalizes the path of a source file relative to the source root, so that every open file has a single key.
+   */
+  private def normalize(path: String): String = {
+    val file = Path.of(path).normalize
+    if (file.isAbsolute || file.startsWith("..") || !path.endsWith(".java"))
+      throw new InvalidParamsException(s"`$path` is not the relative path of a Java source file")
+    file.toString.replace('\\', '/')
+  }
+
+  /**
+   * The latest contents of an open file, which are served from memory instead of being read from the source roots.
+   *
+   * @param path The path of the file relative to the source root, e.g. `com/example/Foo.java`.
+   * @param text The latest contents of the file.
+   */
+  private class OpenFile(val path: String, val text: String)
+    extends SimpleJavaFileObject(new URI("open", null, "/" + path, null), JavaFileObject.Kind.SOURCE) {
+
+    val binaryName: String = path.stripSuffix(".java").replace('/', '.')
+    val packageName: String = binaryName.lastIndexOf('.') match {
+      case -1 => ""
+      case index => binaryName.substring(0, index)
+    }
+
+    override def getCharContent(ignoreEncodingErrors: Boolean): CharSequence = text
+  }
+
+  /**
+   * Serves the open files ahead of their saved versions on the source path, and delegates everything else to the
+   * standard file manager.
+   */
+  private class OpenFileManager(delegate: StandardJavaFileManager)
+    extends ForwardingJavaFileManager[StandardJavaFileManager](delegate) {
+
+    override def list(location: JavaFileManager.Location,
+                      packageName: String,
+                      kinds: java.util.Set[JavaFileObject.Kind],
+                      recurse: Boolean): java.lang.Iterable[JavaFileObject] = {
+      val files = super.list(location, packageName, kinds, recurse)
+
+      if (location != StandardLocation.SOURCE_PATH || !kinds.contains(JavaFileObject.Kind.SOURCE)) files
+      else {
+        val openFilesInPackage = openFiles.values.filter { file =>
+          file.packageName == packageName ||
+            recurse && (packageName.isEmpty || file.packageName.startsWith(packageName + "."))
+        }.toSeq
+        val openBinaryNames = openFilesInPackage.map(_.binaryName).toSet
+        val savedFiles = files.asScala.filterNot(file => openBinaryNames.contains(inferBinaryName(location, file)))
+
+        (openFilesInPackage ++ savedFiles).asJava
+      }
+    }
+
+    override def inferBinaryName(location: JavaFileManager.Location, file: JavaFileObject): String = file match {
+      case openFile: OpenFile => openFile.binaryName
+      case _ => super.inferBinaryName(location, file)
+    }
+
+    override def getJavaFileForInput(location: JavaFileManager.Location,
+                                     className: String,
+                                     kind: JavaFileObject.Kind): JavaFileObject = {
+      val openFile =
+        if (location != StandardLocation.SOURCE_PATH || kind != JavaFileObject.Kind.SOURCE) None
+        else openFiles.values.find(_.binaryName == className)
+
+      openFile match {
+        case Some(file) => file
+        case None => super.getJavaFileForInput(location, className, kind)
+      }
+    }
+
+    // The standard file manager only knows how to compare its own files
+    override def isSameFile(a: FileObject, b: FileObject): Boolean = (a, b) match {
+      case (_: OpenFile, _) | (_, _: OpenFile) => a eq b
+      case _ => super.isSameFile(a, b)
+    }
+  }
+}
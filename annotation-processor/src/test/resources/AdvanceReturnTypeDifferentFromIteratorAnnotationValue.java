@@ -0,0 +1,17 @@
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+@Iterator(Integer.class)
+class AdvanceReturnTypeDifferentFromIteratorAnnotationValue {
+
+    @Iterator.CurrentItem
+    Integer current() { return 0; }
+
+    @Iterator.IsDone
+    boolean isDone() { return true; }
+
+    @Iterator.NextItem
+    Integer next() { return 0; }
+
+    @Iterator.Advance
+    Float advance(int n) { return 0f; }
+}
@@ -0,0 +1,41 @@
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+import java.util.NoSuchElementException;
+
+public class BridgeBenchmark {
+
+    public static long sumWithProtocol(Counter counter) {
+        long sum = 0;
+        while (!counter.isDone()) sum += counter.next();
+        return sum;
+    }
+
+    public static long sumWithBridge(Counter counter) {
+        BridgeBenchmark_CounterBridge bridge = new BridgeBenchmark_CounterBridge(counter);
+        long sum = 0;
+        while (bridge.hasNext()) sum += bridge.nextInt();
+        return sum;
+    }
+
+    @Iterator(int.class)
+    public static class Counter {
+        private final int count;
+        private int current = -1;
+
+        public Counter(int count) {
+            this.count = count;
+        }
+
+        @Iterator.CurrentItem
+        public int current() { return current; }
+
+        @Iterator.IsDone
+        public boolean isDone() { return current + 1 >= count; }
+
+        @Iterator.NextItem
+        public int next() {
+            if (isDone()) throw new NoSuchElementException();
+            return ++current;
+        }
+    }
+}
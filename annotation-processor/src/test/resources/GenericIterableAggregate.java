@@ -0,0 +1,34 @@
+import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate;
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+import java.util.List;
+import java.util.Optional;
+
+@IterableAggregate(GenericIterableAggregate.ListIterator.class)
+public class GenericIterableAggregate<T extends Comparable<T>> {
+    private final List<T> items;
+
+    public GenericIterableAggregate(List<T> items) { this.items = items; }
+
+    @IterableAggregate.IteratorFactory
+    public ListIterator iterator() { return new ListIterator(0); }
+
+    @IterableAggregate.IteratorFactory
+    public ListIterator iteratorFrom(int aggregate) { return new ListIterator(aggregate); }
+
+    @Iterator(Optional.class)
+    public class ListIterator {
+        private int index;
+
+        private ListIterator(int index) { this.index = index - 1; }
+
+        @Iterator.CurrentItem
+        public Optional<T> current() { return Optional.of(items.get(index)); }
+
+        @Iterator.IsDone
+        public boolean isDone() { return index + 1 >= items.size(); }
+
+        @Iterator.NextItem
+        public Optional<T> next() { return Optional.of(items.get(++index)); }
+    }
+}
@@ -0,0 +1,9 @@
+import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate;
+
+// GeneratedIterator does not exist in the sources and is generated by another annotation processor during compilation
+@IterableAggregate(GeneratedIterator.class)
+class IterableAggregateWithGeneratedIterator {
+
+    @IterableAggregate.IteratorFactory
+    GeneratedIterator iterator() { return null; }
+}
@@ -0,0 +1,14 @@
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+@Iterator(Integer.class)
+class IteratorImplementingJavaIterator implements java.util.Iterator<Integer> {
+
+    @Iterator.CurrentItem
+    Integer current() { return 0; }
+
+    @Iterator.IsDone
+    public boolean hasNext() { return false; }
+
+    @Iterator.NextItem
+    public Integer next() { return 0; }
+}
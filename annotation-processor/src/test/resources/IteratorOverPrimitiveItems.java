@@ -0,0 +1,14 @@
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+@Iterator(int.class)
+public class IteratorOverPrimitiveItems {
+
+    @Iterator.CurrentItem
+    int current() { return 0; }
+
+    @Iterator.IsDone
+    public boolean isDone() { return true; }
+
+    @Iterator.NextItem
+    public int next() { return 0; }
+}
@@ -0,0 +1,20 @@
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+@Iterator(Integer.class)
+class IteratorWithTwoAdvanceMethod {
+
+    @Iterator.CurrentItem
+    Integer current() { return 0; }
+
+    @Iterator.IsDone
+    boolean isDone() { return true; }
+
+    @Iterator.NextItem
+    Integer next() { return 0; }
+
+    @Iterator.Advance
+    Integer advance(int n) { return 0; }
+
+    @Iterator.Advance
+    Integer skip2(int n) { return 0; }
+}
@@ -0,0 +1,22 @@
+import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate;
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+@IterableAggregate(ValidIteratorPatternIterator.class)
+class ValidIteratorPattern {
+
+    @IterableAggregate.IteratorFactory
+    ValidIteratorPatternIterator iterator() { return new ValidIteratorPatternIterator(); }
+}
+
+@Iterator(Integer.class)
+class ValidIteratorPatternIterator {
+
+    @Iterator.CurrentItem
+    Integer current() { return 0; }
+
+    @Iterator.IsDone
+    boolean isDone() { return true; }
+
+    @Iterator.NextItem
+    Integer next() { return 0; }
+}
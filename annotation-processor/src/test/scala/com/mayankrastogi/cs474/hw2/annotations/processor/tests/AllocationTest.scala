@@ -0,0 +1,99 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import java.util.Properties
+
+import com.google.testing.compile.CompilationSubject.assertThat
+import com.google.testing.compile.Compiler.javac
+import com.mayankrastogi.cs474.hw2.annotations.processor.{DesignPatternAnnotationProcessor,
+  IterableAggregateAnnotationProcessor, IteratorAnnotationProcessor}
+import javax.annotation.processing.Processor
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+import scala.jdk.CollectionConverters._
+import scala.util.Using
+
+/**
+ * Measures the memory allocated by each annotation processor while processing a fixed valid project generated by
+ * [[SyntheticProject]], and compares it per type against the limit stored in
+ * `src/test/resources/allocation-baseline.properties`, so that changes which make a processor allocate more fail the
+ * suite. Only the memory allocated in the annotation processor is measured, not the memory allocated by javac in
+ * parsing the sources.
+ *
+ * The project only uses the annotations which the processors have supported from the start, so that the same sources
+ * can be measured before and after a change. The [[DesignPatternAnnotationProcessor]] is measured including the
+ * generation of the bridges of the project.
+ *
+ * Like [[ScalingTest]], this suite is excluded from the `test` task and is only run on demand by the `scalingTest`
+ * task.
+ */
+@RunWith(classOf[JUnitRunner])
+class AllocationTest extends FunSuite {
+
+  private val BASELINE_FILE = "allocation-baseline.properties"
+  private val MODULES = 50
+  private val REPETITIONS = 5
+
+  private val types = MODULES * SyntheticProject.TYPES_PER_MODULE
+
+  private lazy val baseline = {
+    val properties = new Properties
+    Using.resource(getClass.getClassLoader.getResourceAsStream(BASELINE_FILE))(in => properties.load(in))
+    properties
+  }
+
+  test("IteratorAnnotationProcessor should not allocate more per type than its limit.") {
+    assertWithinLimit("IteratorAnnotationProcessor", new IteratorAnnotationProcessor, generatedSources = 0)
+  }
+
+  test("IterableAggregateAnnotationProcessor should not allocate more per type than its limit.") {
+    assertWithinLimit("IterableAggregateAnnotationProcessor", new IterableAggregateAnnotationProcessor,
+      generatedSources = 0)
+  }
+
+  test("DesignPatternAnnotationProcessor should not allocate more per type than its limit, including the generation " +
+    "of bridges.") {
+    assertWithinLimit("DesignPatternAnnotationProcessor", new DesignPatternAnnotationProcessor,
+      generatedSources = SyntheticProject.expectedGeneratedSources(MODULES))
+  }
+
+  /**
+   * Measures the memory allocated by an annotation processor per type of the fixed project, and asserts that it does
+   * not exceed its limit by more than the tolerance.
+   *
+   * @param name             The name of the processor in the baseline file.
+   * @param processor        Creates a new instance of the processor, since it keeps state for a compilation.
+   * @param generatedSources The number of source files that the processor must generate.
+   */
+  private def assertWithinLimit(name: String, processor: => Processor, generatedSources: Int): Unit = {
+    assume(MeasuringProcessor.canMeasureMemory,
+      "Measuring the memory allocated by a thread is not supported by this JVM")
+
+    // Keep the lowest allocation, which is the least affected by classes being loaded and initialized on first use
+    val bytesPerType = (1 to REPETITIONS).map(_ => compile(processor, generatedSources).allocatedBytes).min / types
+    val limit = baseline.getProperty(s"$name.bytesPerType").toLong * (1 + baseline.getProperty("tolerance").toDouble)
+    info(s"$types types: $bytesPerType bytes per type (limit ${limit.toLong})")
+
+    assert(bytesPerType <= limit, s"$name allocated $bytesPerType bytes per type, against a limit of " +
+      s"${limit.toLong}. If this is expected, update $BASELINE_FILE.")
+  }
+
+  /**
+   * Runs an annotation processor on the fixed project, and asserts that it processed the project successfully.
+   *
+   * @return The processor which measured the memory allocated in processing.
+   */
+  private def compile(processor: Processor, generatedSources: Int): MeasuringProcessor = {
+    val measuringProcessor = new MeasuringProcessor(processor)
+    val compilation =
+      javac
+        .withProcessors(measuringProcessor)
+        .withOptions("-proc:only")
+        .compile(SyntheticProject.generate(MODULES, valid = true).asJava)
+
+    assertThat(compilation).succeeded()
+    assert(compilation.generatedSourceFiles.size == generatedSources)
+    measuringProcessor
+  }
+}
@@ -0,0 +1,101 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import com.google.testing.compile.CompilationSubject.assertThat
+import com.google.testing.compile.Compiler.javac
+import com.google.testing.compile.{Compilation, JavaFileObjects}
+import com.mayankrastogi.cs474.hw2.annotations.processor.DesignPatternAnnotationProcessor
+import javax.tools.StandardLocation
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+import scala.util.Using
+
+/**
+ * Tests that iterating through a bridge generated by the [[DesignPatternAnnotationProcessor]] is about as fast as
+ * calling the protocol of the `@Iterator` annotation directly, using the loops in
+ * `src/test/resources/BridgeBenchmark.java`, which sum the integers generated by a counter.
+ *
+ * The counter is created outside of the loops, so that neither loop can keep its state in registers when the other
+ * cannot. Like [[ScalingTest]], this suite measures time on the wall clock, so it is excluded from the `test` task and
+ * is only run on demand by the `scalingTest` task.
+ */
+@RunWith(classOf[JUnitRunner])
+class BridgeBenchmarkTest extends FunSuite {
+
+  private val ITEMS = 10000000
+  private val WARM_UP_REPETITIONS = 20
+  private val REPETITIONS = 10
+
+  // How many times slower than the protocol the bridge may be, to allow for noise
+  private val TOLERANCE = 1.5
+
+  private lazy val loader = {
+    val compilation =
+      javac
+        .withProcessors(new DesignPatternAnnotationProcessor)
+        .compile(JavaFileObjects.forResource("BridgeBenchmark.java"))
+
+    assertThat(compilation).succeededWithoutWarnings()
+    new CompilationClassLoader(compilation)
+  }
+
+  private lazy val benchmarkClass = loader.loadClass("BridgeBenchmark")
+  private lazy val counterClass = loader.loadClass("BridgeBenchmark$Counter")
+
+  test("Iterating through a generated bridge should take about as long as calling the protocol directly.") {
+    val expectedSum = ITEMS.toLong * (ITEMS - 1) / 2
+    assert(sum("sumWithProtocol") == expectedSum)
+    assert(sum("sumWithBridge") == expectedSum)
+
+    // Let the JIT compiler warm up on both loops, so that it does not skew the first measurements
+    (1 to WARM_UP_REPETITIONS).foreach { _ =>
+      sum("sumWithProtocol")
+      sum("sumWithBridge")
+    }
+    val protocolNanos = measure("sumWithProtocol")
+    val bridgeNanos = measure("sumWithBridge")
+    info(s"$ITEMS items: ${protocolNanos / 1000000} ms through the protocol, ${bridgeNanos / 1000000} ms through the " +
+      "bridge")
+
+    assert(bridgeNanos <= protocolNanos * TOLERANCE, s"Iterating through the bridge took ${bridgeNanos / 1000000} " +
+      s"ms, against ${protocolNanos / 1000000} ms through the protocol")
+  }
+
+  /**
+   * Runs the specified loop a few times, and keeps the lowest time, which is the least affected by garbage collection
+   * and other noise.
+   *
+   * @param loop The name of the static method of `BridgeBenchmark` which runs the loop.
+   * @return The time taken by the loop, in nanoseconds.
+   */
+  private def measure(loop: String): Long = (1 to REPETITIONS).map { _ =>
+    val counter = newCounter()
+    val startTime = System.nanoTime
+    invoke(loop, counter)
+    System.nanoTime - startTime
+  }.min
+
+  private def sum(loop: String): Long = invoke(loop, newCounter())
+
+  private def newCounter(): AnyRef =
+    counterClass.getConstructor(classOf[Int]).newInstance(Int.box(ITEMS)).asInstanceOf[AnyRef]
+
+  private def invoke(loop: String, counter: AnyRef): Long =
+    benchmarkClass.getMethod(loop, counterClass).invoke(null, counter).asInstanceOf[java.lang.Long]
+
+  /**
+   * Loads the classes compiled in a compilation.
+   */
+  private class CompilationClassLoader(compilation: Compilation)
+    extends ClassLoader(classOf[BridgeBenchmarkTest].getClassLoader) {
+
+    override def findClass(name: String): Class[_] = {
+      val classFile = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, name.replace('.', '/') + ".class")
+      if (!classFile.isPresent) throw new ClassNotFoundException(name)
+
+      val bytes = Using.resource(classFile.get.openInputStream())(_.readAllBytes())
+      defineClass(name, bytes, 0, bytes.length)
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import com.google.testing.compile.CompilationSubject.assertThat
+import com.google.testing.compile.Compiler.javac
+import com.google.testing.compile.{Compilation, JavaFileObjects}
+import com.mayankrastogi.cs474.hw2.annotations.processor.DesignPatternAnnotationProcessor
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+/**
+ * Tests that the [[DesignPatternAnnotationProcessor]] verifies the rules of all the participants of a design pattern in
+ * a single processor.
+ */
+@RunWith(classOf[JUnitRunner])
+class DesignPatternAnnotationProcessorTest extends FunSuite {
+
+  test("DesignPatternAnnotationProcessor should succeed without warnings on valid usage.") {
+    assertThat(compile("ValidIterator.java")).succeededWithoutWarnings()
+    assertThat(compile("ValidIteratorPattern.java")).succeededWithoutWarnings()
+    assertThat(compile("ValidIteratorWithAdvance.java")).succeededWithoutWarnings()
+  }
+
+  test("DesignPatternAnnotationProcessor should catch violations of the rules for @Iterator.") {
+    assertThat(compile("IteratorWithTwoNextItemMethod.java")).failed()
+    assertThat(compile("AdvanceParameterNotInt.java")).failed()
+    assertThat(compile("NextItemPrivate.java")).hadWarningCount(1)
+  }
+
+  test("DesignPatternAnnotationProcessor should catch violations of the rules for @IterableAggregate.") {
+    assertThat(compile("IterableAggregateAnnotationValueNotAnIterator.java")).failed()
+    assertThat(compile("IteratorFactoryReturnTypeDifferentFromIterableAggregateAnnotationValue.java")).failed()
+  }
+
+  test("DesignPatternAnnotationProcessor should generate bridges to java.util.Iterator and java.lang.Iterable.") {
+    val compilation = compile("ValidIteratorPattern.java")
+
+    assertThat(compilation).succeededWithoutWarnings()
+    assertThat(compilation).generatedSourceFile("ValidIteratorPatternIteratorBridge")
+      .contentsAsUtf8String().contains("implements java.util.Iterator<java.lang.Integer>")
+    assertThat(compilation).generatedSourceFile("ValidIteratorPatternIterables")
+      .contentsAsUtf8String().contains("java.lang.Iterable<java.lang.Integer> iterator(")
+  }
+
+  test("Bridges for iterators over int values must implement java.util.PrimitiveIterator.OfInt.") {
+    val compilation = compile("IteratorOverPrimitiveItems.java")
+
+    assertThat(compilation).succeededWithoutWarnings()
+    assertThat(compilation).generatedSourceFile("IteratorOverPrimitiveItemsBridge")
+      .contentsAsUtf8String().contains("implements java.util.PrimitiveIterator.OfInt")
+  }
+
+  test("Bridges must be generated for generic inner iterators and for iterator factories with parameters.") {
+    val compilation = compile("GenericIterableAggregate.java")
+
+    // The generated sources are compiled along with the fixture, so they must be valid
+    assertThat(compilation).succeededWithoutWarnings()
+    assertThat(compilation).generatedSourceFile("GenericIterableAggregate_ListIteratorBridge")
+      .contentsAsUtf8String().contains("implements java.util.Iterator<java.util.Optional<T>>")
+    assertThat(compilation).generatedSourceFile("GenericIterableAggregateIterables")
+      .contentsAsUtf8String()
+      .contains("iteratorFrom(final GenericIterableAggregate<T> _aggregate, final int aggregate)")
+  }
+
+  test("Bridges must not be generated for iterators which already implement java.util.Iterator.") {
+    val compilation = compile("IteratorImplementingJavaIterator.java")
+
+    assertThat(compilation).succeededWithoutWarnings()
+    assert(!compilation.generatedSourceFile("IteratorImplementingJavaIteratorBridge").isPresent)
+  }
+
+  test("Bridges must not be generated for iterators whose protocol is private.") {
+    val compilation = compile("NextItemPrivate.java")
+
+    assertThat(compilation).hadWarningCount(1)
+    assert(compilation.generatedSourceFiles.isEmpty)
+  }
+
+  /**
+   * Compiles the specified Java source file, present in the `src/test/resources` directory, and runs the
+   * [[DesignPatternAnnotationProcessor]] during the compilation.
+   *
+   * @param fileName The Java source file to compile. The file should be present in the `src/test/resources` directory.
+   * @return The result of the compilation.
+   */
+  private def compile(fileName: String): Compilation = {
+    javac
+      .withProcessors(new DesignPatternAnnotationProcessor)
+      .compile(JavaFileObjects.forResource(fileName))
+  }
+}
@@ -1,13 +1,21 @@
 package com.mayankrastogi.cs474.hw2.annotations.processor.tests
 
+import java.util
+
 import com.google.testing.compile.CompilationSubject.assertThat
 import com.google.testing.compile.Compiler.javac
 import com.google.testing.compile.{Compilation, JavaFileObjects}
+import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate
 import com.mayankrastogi.cs474.hw2.annotations.processor.IterableAggregateAnnotationProcessor
+import javax.annotation.processing.{AbstractProcessor, RoundEnvironment}
+import javax.lang.model.SourceVersion
+import javax.lang.model.element.TypeElement
 import org.junit.runner.RunWith
 import org.scalatest.FunSuite
 import org.scalatestplus.junit.JUnitRunner
 
+import scala.util.Using
+
 /**
  * Tests that the [[IterableAggregateAnnotationProcessor]] is able to catch issues mentioned in this test suite.
  */
@@ -40,6 +48,16 @@ class IterableAggregateAnnotationProcessorTest extends FunSuite {
     assertThat(compile("IteratorFactoryReturnTypeDifferentFromIterableAggregateAnnotationValue.java")).failed()
   }
 
+  test("@IterableAggregate's value property may be an iterator generated by another annotation processor in a later " +
+    "round.") {
+    val compilation =
+      javac
+        .withProcessors(new IteratorGeneratingProcessor, new IterableAggregateAnnotationProcessor)
+        .compile(JavaFileObjects.forResource("IterableAggregateWithGeneratedIterator.java"))
+
+    assertThat(compilation).succeeded()
+  }
+
   /**
    * Compiles the specified Java source file, present in the `src/test/resources` directory, and runs the
    * [[IterableAggregateAnnotationProcessor]] during the compilation.
@@ -53,3 +71,33 @@ class IterableAggregateAnnotationProcessorTest extends FunSuite {
       .compile(JavaFileObjects.forResource(fileName))
   }
 }
+
+/**
+ * Generates the source of a class named `GeneratedIterator`, annotated with @Iterator, during the first round in which
+ * it sees an element annotated with @[[IterableAggregate]]. This mimics a code generator whose output is only available
+ * to the [[IterableAggregateAnnotationProcessor]] in a later round.
+ */
+private class IteratorGeneratingProcessor extends AbstractProcessor {
+
+  private var generated = false
+
+  override def getSupportedAnnotationTypes: util.Set[String] = util.Set.of(classOf[IterableAggregate].getCanonicalName)
+
+  override def getSupportedSourceVersion: SourceVersion = SourceVersion.latestSupported
+
+  override def process(annotations: util.Set[_ <: TypeElement], roundEnv: RoundEnvironment): Boolean = {
+    if (!generated && !annotations.isEmpty) {
+      Using.resource(processingEnv.getFiler.createSourceFile("GeneratedIterator").openWriter) { writer =>
+        writer.write(
+          """import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+            |
+            |@Iterator(Integer.class)
+            |class GeneratedIterator {}
+            |""".stripMargin)
+      }
+      generated = true
+    }
+    // Let the processor under test see the same annotations
+    false
+  }
+}
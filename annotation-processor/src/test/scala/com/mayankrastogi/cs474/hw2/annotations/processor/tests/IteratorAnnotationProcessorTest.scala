@@ -83,6 +83,33 @@ class IteratorAnnotationProcessorTest extends FunSuite {
     assertThat(compile("NextItemPrivate.java")).hadWarningCount(1)
   }
 
+  test("IteratorAnnotationProcessor should succeed without warnings on valid usage of @Advance.") {
+    assertThat(compile("ValidIteratorWithAdvance.java")).succeededWithoutWarnings()
+  }
+
+  test("@Iterator must not contain more than one method annotated with @Advance.") {
+    assertThat(compile("IteratorWithTwoAdvanceMethod.java")).failed()
+  }
+
+  test("@Advance must be enclosed within a class annotated with @Iterator") {
+    assertThat(compile("AdvanceNotInIterator.java")).failed()
+  }
+
+  test("Return type of method annotated with @Advance must match the value property of its parent " +
+    "class's @Iterator annotation.") {
+    assertThat(compile("AdvanceReturnTypeDifferentFromIteratorAnnotationValue.java")).failed()
+  }
+
+  test("Method annotated with @Advance must take exactly one parameter of type int.") {
+    assertThat(compile("AdvanceWithNoParameters.java")).failed()
+    assertThat(compile("AdvanceWithTwoParameters.java")).failed()
+    assertThat(compile("AdvanceParameterNotInt.java")).failed()
+  }
+
+  test("Method annotated with @Advance must generate a warning if it is private") {
+    assertThat(compile("AdvancePrivate.java")).hadWarningCount(1)
+  }
+
   /**
    * Compiles the specified Java source file, present in the `src/test/resources` directory, and runs the
    * [[IteratorAnnotationProcessor]] during the compilation.
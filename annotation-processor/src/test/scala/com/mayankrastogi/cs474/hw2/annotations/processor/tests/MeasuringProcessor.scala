@@ -0,0 +1,60 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import java.lang.management.ManagementFactory
+import java.util
+
+import javax.annotation.processing._
+import javax.lang.model.SourceVersion
+import javax.lang.model.element.{AnnotationMirror, Element, ExecutableElement, TypeElement}
+
+/**
+ * Delegates to another annotation processor, and measures the time spent and the memory allocated by it.
+ *
+ * @param delegate The annotation processor to measure.
+ */
+class MeasuringProcessor(delegate: Processor) extends Processor {
+
+  import MeasuringProcessor._
+
+  var elapsedNanos = 0L
+  var allocatedBytes = 0L
+
+  override def process(annotations: util.Set[_ <: TypeElement], roundEnv: RoundEnvironment): Boolean = {
+    // javac runs the annotation processors on the thread which invoked it
+    val threadId = Thread.currentThread.getId
+    val startBytes = if (canMeasureMemory) threadMXBean.getThreadAllocatedBytes(threadId) else 0L
+    val startTime = System.nanoTime
+
+    try delegate.process(annotations, roundEnv)
+    finally {
+      elapsedNanos += System.nanoTime - startTime
+      if (canMeasureMemory) allocatedBytes += threadMXBean.getThreadAllocatedBytes(threadId) - startBytes
+    }
+  }
+
+  override def init(processingEnv: ProcessingEnvironment): Unit = delegate.init(processingEnv)
+
+  override def getSupportedOptions: util.Set[String] = delegate.getSupportedOptions
+
+  override def getSupportedAnnotationTypes: util.Set[String] = delegate.getSupportedAnnotationTypes
+
+  override def getSupportedSourceVersion: SourceVersion = delegate.getSupportedSourceVersion
+
+  override def getCompletions(element: Element,
+                              annotation: AnnotationMirror,
+                              member: ExecutableElement,
+                              userText: String): java.lang.Iterable[_ <: Completion] =
+    delegate.getCompletions(element, annotation, member, userText)
+}
+
+object MeasuringProcessor {
+
+  private val threadMXBean = ManagementFactory.getThreadMXBean.asInstanceOf[com.sun.management.ThreadMXBean]
+
+  /**
+   * Whether this JVM can measure the memory allocated by a thread. If not, [[MeasuringProcessor.allocatedBytes]] stays
+   * `0`.
+   */
+  val canMeasureMemory: Boolean =
+    threadMXBean.isThreadAllocatedMemorySupported && threadMXBean.isThreadAllocatedMemoryEnabled
+}
@@ -0,0 +1,176 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import java.util.Properties
+
+import com.google.testing.compile.CompilationSubject.assertThat
+import com.google.testing.compile.Compiler.javac
+import com.mayankrastogi.cs474.hw2.annotations.processor.DesignPatternAnnotationProcessor
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+import scala.jdk.CollectionConverters._
+import scala.util.Using
+
+/**
+ * Tests that the processing time and the memory allocated by the [[DesignPatternAnnotationProcessor]] grow linearly
+ * with the number of types in a project, using the projects generated by [[SyntheticProject]].
+ *
+ * The growth is fitted as the exponent `k` in `cost ~ types^k` and compared against the baseline stored in
+ * `src/test/resources/scaling-baseline.properties`, so that superlinear regressions fail the suite. Only the time spent
+ * in the annotation processor is measured, not the time spent by javac in parsing the sources. The projects are
+ * measured both with an error, which stops the processor before it generates any sources, and without it, so that the
+ * generation of the bridges is measured as well.
+ *
+ * Since generating and compiling large projects takes a while, this suite is excluded from the `test` task and is only
+ * run on demand by the `scalingTest` task. The sizes of the projects, in number of modules, can be overridden with the
+ * system property `scaling.sizes`, e.g. `-Dscaling.sizes=100,200,400`.
+ */
+@RunWith(classOf[JUnitRunner])
+class ScalingTest extends FunSuite {
+
+  private val BASELINE_FILE = "scaling-baseline.properties"
+  private val DEFAULT_SIZES = Seq(125, 250, 500, 1000)
+  private val REPETITIONS = 3
+
+  private val sizes =
+    Option(System.getProperty("scaling.sizes"))
+      .map(_.split(",").toSeq.map(_.trim.toInt))
+      .getOrElse(DEFAULT_SIZES)
+
+  private lazy val baseline = {
+    val properties = new Properties
+    Using.resource(getClass.getClassLoader.getResourceAsStream(BASELINE_FILE))(in => properties.load(in))
+    properties
+  }
+
+  // Measured only once, and shared by all the tests in this suite
+  private lazy val invalidMeasurements = measureAll(valid = false)
+  private lazy val validMeasurements = measureAll(valid = true)
+
+  test("DesignPatternAnnotationProcessor should report every warning and error in projects of all sizes.") {
+    report(invalidMeasurements)
+  }
+
+  test("DesignPatternAnnotationProcessor should generate bridges for valid projects of all sizes.") {
+    report(validMeasurements)
+  }
+
+  test("Processing time should grow linearly with the number of types.") {
+    assertLinearGrowth("time", invalidMeasurements)(_.elapsedNanos)
+  }
+
+  test("Processing time, including the generation of bridges, should grow linearly with the number of types.") {
+    assertLinearGrowth("time", validMeasurements)(_.elapsedNanos)
+  }
+
+  test("Memory allocated during processing should grow linearly with the number of types.") {
+    assume(MeasuringProcessor.canMeasureMemory,
+      "Measuring the memory allocated by a thread is not supported by this JVM")
+    assertLinearGrowth("memory", invalidMeasurements)(_.allocatedBytes)
+  }
+
+  test("Memory allocated during processing, including the generation of bridges, should grow linearly with the " +
+    "number of types.") {
+    assume(MeasuringProcessor.canMeasureMemory,
+      "Measuring the memory allocated by a thread is not supported by this JVM")
+    assertLinearGrowth("memory", validMeasurements)(_.allocatedBytes)
+  }
+
+  /**
+   * The cost of processing a project.
+   *
+   * @param types          The number of types in the project.
+   * @param elapsedNanos   The time spent in the annotation processor.
+   * @param allocatedBytes The memory allocated by the annotation processor.
+   */
+  private case class Measurement(types: Int, elapsedNanos: Long, allocatedBytes: Long)
+
+  /**
+   * Measures the projects of every size.
+   *
+   * @param valid Whether the projects are generated without an error.
+   * @return The cost of processing each project, in the order of [[sizes]].
+   */
+  private def measureAll(valid: Boolean): Seq[Measurement] = {
+    // Let the JIT compiler warm up on the smallest project, so that it does not skew the first measurement
+    (1 to REPETITIONS).foreach(_ => compile(sizes.head, valid))
+    sizes.map(measure(_, valid))
+  }
+
+  /**
+   * Processes a project with the given number of modules a few times, and keeps the lowest cost, which is the least
+   * affected by garbage collection and other noise.
+   */
+  private def measure(modules: Int, valid: Boolean): Measurement = {
+    val processors = (1 to REPETITIONS).map(_ => compile(modules, valid))
+
+    Measurement(
+      modules * SyntheticProject.TYPES_PER_MODULE,
+      processors.map(_.elapsedNanos).min,
+      processors.map(_.allocatedBytes).min
+    )
+  }
+
+  private def report(measurements: Seq[Measurement]): Unit = {
+    measurements.foreach { measurement =>
+      info(s"${measurement.types} types: ${measurement.elapsedNanos / 1000000} ms, " +
+        s"${measurement.allocatedBytes / 1024} KiB allocated")
+    }
+  }
+
+  /**
+   * Runs the [[DesignPatternAnnotationProcessor]] on a project with the given number of modules, and asserts that it
+   * reported the problems in the project, and generated the bridges for a valid project.
+   *
+   * @return The processor which measured the cost of processing.
+   */
+  private def compile(modules: Int, valid: Boolean): MeasuringProcessor = {
+    val processor = new MeasuringProcessor(new DesignPatternAnnotationProcessor)
+    val compilation =
+      javac
+        .withProcessors(processor)
+        .withOptions("-proc:only")
+        .compile(SyntheticProject.generate(modules, valid).asJava)
+
+    assertThat(compilation).hadErrorCount(if (valid) 0 else 1)
+    assertThat(compilation).hadWarningCount(SyntheticProject.expectedWarnings(modules))
+    if (valid) assert(compilation.generatedSourceFiles.size == SyntheticProject.expectedGeneratedSources(modules))
+    processor
+  }
+
+  /**
+   * Fits the growth exponent of the given costs, measured for each size, and asserts that it does not exceed its
+   * baseline by more than the tolerance.
+   *
+   * @param metric       The name of the metric in the baseline file.
+   * @param measurements The measurements of the projects.
+   * @param cost         Extracts the cost from a measurement.
+   */
+  private def assertLinearGrowth(metric: String, measurements: Seq[Measurement])(cost: Measurement => Long): Unit = {
+    assume(sizes.distinct.size >= 2, "At least two project sizes are needed to measure growth")
+
+    val exponent = fitExponent(measurements.map(_.types.toDouble), measurements.map(cost(_).toDouble))
+    val limit = baseline.getProperty(s"$metric.exponent").toDouble + baseline.getProperty(s"$metric.tolerance").toDouble
+    info(f"Growth exponent of $metric: $exponent%.2f (limit $limit%.2f)")
+
+    assert(exponent <= limit, s"The $metric grows superlinearly with the number of types, with an exponent of " +
+      f"$exponent%.2f against a limit of $limit%.2f. If this is expected, update $BASELINE_FILE.")
+  }
+
+  /**
+   * Fits `y ~ x^k` with a least squares regression of `log(y)` on `log(x)`.
+   *
+   * @return The exponent `k`.
+   */
+  private def fitExponent(xs: Seq[Double], ys: Seq[Double]): Double = {
+    val logXs = xs.map(math.log)
+    val logYs = ys.map(math.log)
+    val meanX = logXs.sum / logXs.size
+    val meanY = logYs.sum / logYs.size
+
+    val covariance = logXs.zip(logYs).map { case (x, y) => (x - meanX) * (y - meanY) }.sum
+    val variance = logXs.map(x => (x - meanX) * (x - meanX)).sum
+    covariance / variance
+  }
+}
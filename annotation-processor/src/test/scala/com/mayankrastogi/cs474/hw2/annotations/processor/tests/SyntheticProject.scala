@@ -0,0 +1,132 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import com.google.testing.compile.JavaFileObjects
+import javax.tools.JavaFileObject
+
+/**
+ * Generates the sources of synthetic projects which use the annotations of the Iterator design pattern, for measuring
+ * how the annotation processors scale with the size of a project.
+ *
+ * A project is made up of modules, each of which is a single source file declaring an aggregate with many
+ * `@IteratorFactory` methods, and a chain of iterators nested within each other. Every module is valid, except that
+ * every [[WARNING_INTERVAL]]th module has a private `@NextItem` method, which raises a warning, and that the innermost
+ * iterator of the last module lacks an `@IsDone` method, which raises an error.
+ *
+ * The error stops the annotation processors from generating any sources, so projects can also be generated without
+ * it, in which case bridges are generated for their iterators and aggregates as well.
+ */
+object SyntheticProject {
+
+  /**
+   * The number of iterators nested within each other in a module.
+   */
+  val NESTING_DEPTH = 9
+
+  /**
+   * The number of `@IteratorFactory` methods in the aggregate of a module.
+   */
+  val FACTORY_METHODS = 16
+
+  /**
+   * The number of types declared in a module, i.e. its aggregate and iterators.
+   */
+  val TYPES_PER_MODULE: Int = 1 + NESTING_DEPTH
+
+  /**
+   * The interval between modules with a private `@NextItem` method.
+   */
+  val WARNING_INTERVAL = 10
+
+  /**
+   * Generates the sources of a project.
+   *
+   * @param modules The number of modules in the project.
+   * @param valid   Whether the innermost iterator of the last module has an `@IsDone` method as well, so that the
+   *                project raises no errors.
+   * @return The source files of the project, in the order of their modules.
+   */
+  def generate(modules: Int, valid: Boolean = false): Seq[JavaFileObject] = (0 until modules).map { index =>
+    val packageName = s"synthetic.m${index / 100}"
+    val className = s"Aggregate$index"
+
+    JavaFileObjects.forSourceString(s"$packageName.$className",
+      module(packageName, className, privateNextItem = index % WARNING_INTERVAL == 0,
+        invalid = !valid && index == modules - 1))
+  }
+
+  /**
+   * @return The number of warnings that the annotation processors must raise for a project with the given number of
+   *         modules.
+   */
+  def expectedWarnings(modules: Int): Int = (modules + WARNING_INTERVAL - 1) / WARNING_INTERVAL
+
+  /**
+   * @return The number of source files that the annotation processors must generate for a valid project with the given
+   *         number of modules: a bridge for every iterator and the iterables of every aggregate, except in the modules
+   *         with a private `@NextItem` method, where neither the outermost iterator nor the aggregate can be bridged.
+   */
+  def expectedGeneratedSources(modules: Int): Int = modules * (NESTING_DEPTH + 1) - expectedWarnings(modules) * 2
+
+  private def module(packageName: String, className: String, privateNextItem: Boolean, invalid: Boolean): String = {
+    val source = new StringBuilder
+
+    source ++=
+      s"""package $packageName;
+         |
+         |import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate;
+         |import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+         |
+         |@IterableAggregate($className.Level0.class)
+         |public class $className {
+         |""".stripMargin
+
+    (0 until FACTORY_METHODS).foreach { factory =>
+      source ++=
+        s"""    @IterableAggregate.IteratorFactory
+           |    Level0 iterator$factory() { return new Level0(); }
+           |
+           |""".stripMargin
+    }
+
+    appendIterator(source, 0, privateNextItem, invalid)
+    source ++= "}\n"
+    source.toString
+  }
+
+  /**
+   * Appends the iterator at the given nesting `level`, along with the iterators nested within it.
+   */
+  private def appendIterator(source: StringBuilder, level: Int, privateNextItem: Boolean, invalid: Boolean): Unit = {
+    val indent = "    " * (level + 1)
+    val isInnermost = level == NESTING_DEPTH - 1
+
+    source ++=
+      s"""$indent@Iterator(Integer.class)
+         |${indent}static class Level$level {
+         |$indent    @Iterator.CurrentItem
+         |$indent    Integer current() { return 0; }
+         |
+         |""".stripMargin
+
+    if (!(invalid && isInnermost)) {
+      source ++=
+        s"""$indent    @Iterator.IsDone
+           |$indent    boolean isDone() { return true; }
+           |
+           |""".stripMargin
+    }
+
+    // Only the outermost iterator has a private method, so that a module raises at most one warning
+    val modifier = if (privateNextItem && level == 0) "private " else ""
+    source ++=
+      s"""$indent    @Iterator.NextItem
+         |$indent    ${modifier}Integer next() { return 0; }
+         |""".stripMargin
+
+    if (!isInnermost) {
+      source ++= "\n"
+      appendIterator(source, level + 1, privateNextItem, invalid)
+    }
+    source ++= s"$indent}\n"
+  }
+}
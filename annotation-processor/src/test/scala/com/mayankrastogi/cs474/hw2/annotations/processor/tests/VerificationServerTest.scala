@@ -0,0 +1,116 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import java.nio.file.Path
+
+import com.mayankrastogi.cs474.hw2.annotations.processor.server.{Json, VerificationServer, VerificationService}
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+import scala.util.Using
+
+/**
+ * Tests that the [[VerificationServer]] follows the JSON-RPC 2.0 protocol, and that [[Json]] reads and writes the
+ * messages exchanged with it.
+ */
+@RunWith(classOf[JUnitRunner])
+class VerificationServerTest extends FunSuite {
+
+  test("Json should read back the values it writes.") {
+    val value = Map(
+      "string" -> "a \"quoted\" \\ string\nwith a line break",
+      "number" -> BigDecimal("-12.5e3"),
+      "boolean" -> true,
+      "null" -> null,
+      "array" -> Seq(BigDecimal(1), "two", Map("three" -> false))
+    )
+    assert(Json.parse(Json.write(value)) == value)
+  }
+
+  test("Json should reject malformed text.") {
+    assertThrows[IllegalArgumentException](Json.parse("""{"id": 1"""))
+    assertThrows[IllegalArgumentException](Json.parse("""{"id": 1} trailing"""))
+  }
+
+  test("VerificationServer should respond with a parse error to malformed JSON.") {
+    withService { service =>
+      val (response, shutdown) = VerificationServer.handle(service, """{"jsonrpc": "2.0", "id": 1""")
+      assert(errorCode(response) == -32700)
+      assert(response.get("id") == null)
+      assert(!shutdown)
+    }
+  }
+
+  test("VerificationServer should respond with an invalid request error to a message which is not an object.") {
+    withService { service =>
+      assert(errorCode(VerificationServer.handle(service, """[1, 2]""")._1) == -32600)
+    }
+  }
+
+  test("VerificationServer should respond with a method not found error to an unknown method.") {
+    withService { service =>
+      val response = VerificationServer.handle(service, """{"jsonrpc": "2.0", "id": 1, "method": "open"}""")._1
+      assert(errorCode(response) == -32601)
+    }
+  }
+
+  test("VerificationServer should respond with an invalid params error to missing or invalid params.") {
+    withService { service =>
+      val missingText = """{"jsonrpc": "2.0", "id": 1, "method": "update", "params": {"path": "Foo.java"}}"""
+      assert(errorCode(VerificationServer.handle(service, missingText)._1) == -32602)
+
+      val invalidPath = """{"jsonrpc": "2.0", "id": 2, "method": "close", "params": {"path": "../Foo.java"}}"""
+      assert(errorCode(VerificationServer.handle(service, invalidPath)._1) == -32602)
+    }
+  }
+
+  test("VerificationServer should not respond to notifications.") {
+    withService { service =>
+      val close = """{"jsonrpc": "2.0", "method": "close", "params": {"path": "Foo.java"}}"""
+      assert(VerificationServer.handle(service, close) == (None, false))
+
+      // Not even with an error
+      assert(VerificationServer.handle(service, """{"jsonrpc": "2.0", "method": "open"}""") == (None, false))
+    }
+  }
+
+  test("VerificationServer should respond with the id of the request, whether it is a string or a number.") {
+    withService { service =>
+      val stringId = VerificationServer.handle(service, """{"jsonrpc": "2.0", "id": "abc", "method": "shutdown"}""")
+      assert(stringId._2)
+      assert(Json.write(stringId._1.get) == """{"jsonrpc":"2.0","id":"abc","result":null}""")
+
+      val numberId = VerificationServer.handle(service, """{"jsonrpc": "2.0", "id": 7, "method": "shutdown"}""")
+      assert(Json.write(numberId._1.get) == """{"jsonrpc":"2.0","id":7,"result":null}""")
+    }
+  }
+
+  test("VerificationServer should respond to an update with the diagnostics of the verified files.") {
+    withService { service =>
+      val update = Json.write(Map(
+        "jsonrpc" -> "2.0",
+        "id" -> 1,
+        "method" -> "update",
+        "params" -> Map("path" -> "Empty.java", "text" -> "class Empty {}")
+      ))
+      val response = VerificationServer.handle(service, update)._1.get
+      val result = response("result").asInstanceOf[Map[String, Any]]
+      assert(result("diagnostics") == Map("Empty.java" -> Seq.empty))
+    }
+  }
+
+  /**
+   * @return The code of the error in the specified response.
+   */
+  private def errorCode(response: Option[Map[String, Any]]): Int =
+    response.get("error").asInstanceOf[Map[String, Any]]("code").asInstanceOf[Int]
+
+  /**
+   * Runs the specified test with a new [[VerificationService]], which uses the class path of the tests so that the
+   * annotations can be resolved.
+   */
+  private def withService(test: VerificationService => Unit): Unit = {
+    val classPath = System.getProperty("java.class.path").split(java.io.File.pathSeparator).toSeq.map(Path.of(_))
+    Using.resource(new VerificationService(Seq.empty, classPath))(test)
+  }
+}
@@ -0,0 +1,136 @@
+package com.mayankrastogi.cs474.hw2.annotations.processor.tests
+
+import java.nio.file.{Files, Path}
+
+import com.mayankrastogi.cs474.hw2.annotations.processor.server.VerificationService
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+import scala.io.Source
+import scala.util.Using
+
+/**
+ * Tests that the [[VerificationService]] reports the diagnostics of the annotation processors for open files, and
+ * re-verifies the open files affected by an update.
+ */
+@RunWith(classOf[JUnitRunner])
+class VerificationServiceTest extends FunSuite {
+
+  private val ITERATOR_BODY =
+    """    @Iterator.CurrentItem
+      |    Integer current() { return 0; }
+      |
+      |    @Iterator.IsDone
+      |    boolean isDone() { return true; }
+      |
+      |    @Iterator.NextItem
+      |    Integer next() { return 0; }
+      |""".stripMargin
+
+  private val SEPARATE_ITERATOR =
+    s"""import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+       |
+       |@Iterator(Integer.class)
+       |class SeparateIterator {
+       |$ITERATOR_BODY
+       |}
+       |""".stripMargin
+
+  // Removing @Iterator from the iterator breaks the aggregate
+  private val BROKEN_SEPARATE_ITERATOR = SEPARATE_ITERATOR.replace("@Iterator(Integer.class)\n", "")
+
+  private val AGGREGATE =
+    """import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate;
+      |
+      |@IterableAggregate(SeparateIterator.class)
+      |class Aggregate {
+      |    @IterableAggregate.IteratorFactory
+      |    SeparateIterator iterator() { return null; }
+      |}
+      |""".stripMargin
+
+  test("VerificationService should report no diagnostics for a valid file.") {
+    withService() { service =>
+      val diagnostics = service.update("ValidIterator.java", resource("ValidIterator.java"))
+      assert(diagnostics == Map("ValidIterator.java" -> Seq.empty))
+    }
+  }
+
+  test("VerificationService should report errors raised by the annotation processors.") {
+    withService() { service =>
+      val diagnostics = service.update("NextItemWithParameters.java", resource("NextItemWithParameters.java"))
+      assert(diagnostics("NextItemWithParameters.java").exists(_.severity == "error"))
+    }
+  }
+
+  test("VerificationService should clear errors once a file is fixed.") {
+    withService() { service =>
+      service.update("NextItemWithParameters.java", resource("NextItemWithParameters.java"))
+
+      val fixedSource = resource("NextItemWithParameters.java").replace("next(int param)", "next()")
+      val diagnostics = service.update("NextItemWithParameters.java", fixedSource)
+      assert(diagnostics == Map("NextItemWithParameters.java" -> Seq.empty))
+    }
+  }
+
+  test("VerificationService should verify the latest contents of a file updated twice in a row.") {
+    withService() { service =>
+      val source = resource("NextItemWithParameters.java")
+      val fixedSource = source.replace("next(int param)", "next()")
+
+      // Both updates are likely to land within the same millisecond, and must not be told apart by time
+      service.update("NextItemWithParameters.java", fixedSource)
+      val diagnostics = service.update("NextItemWithParameters.java", source)
+      assert(diagnostics("NextItemWithParameters.java").exists(_.severity == "error"))
+    }
+  }
+
+  test("VerificationService should re-verify open files which refer to a type declared in an updated file.") {
+    withService() { service =>
+      service.update("SeparateIterator.java", SEPARATE_ITERATOR)
+      assert(service.update("Aggregate.java", AGGREGATE) == Map("Aggregate.java" -> Seq.empty))
+
+      val diagnostics = service.update("SeparateIterator.java", BROKEN_SEPARATE_ITERATOR)
+      assert(diagnostics.keySet == Set("SeparateIterator.java", "Aggregate.java"))
+      assert(diagnostics("Aggregate.java").exists(_.severity == "error"))
+    }
+  }
+
+  test("VerificationService should read a saved file again after it changes without its modification time changing.") {
+    val sourceRoot = Files.createTempDirectory("verification-service-test")
+    val savedFile = sourceRoot.resolve("SeparateIterator.java")
+    try {
+      Files.writeString(savedFile, SEPARATE_ITERATOR)
+
+      withService(sourceRoot) { service =>
+        assert(service.update("Aggregate.java", AGGREGATE) == Map("Aggregate.java" -> Seq.empty))
+
+        val lastModifiedTime = Files.getLastModifiedTime(savedFile)
+        Files.writeString(savedFile, BROKEN_SEPARATE_ITERATOR)
+        Files.setLastModifiedTime(savedFile, lastModifiedTime)
+
+        assert(service.update("Aggregate.java", AGGREGATE)("Aggregate.java").exists(_.severity == "error"))
+      }
+    } finally {
+      Files.deleteIfExists(savedFile)
+      Files.delete(sourceRoot)
+    }
+  }
+
+  /**
+   * Runs the specified test with a new [[VerificationService]], which uses the class path of the tests so that the
+   * annotations can be resolved.
+   *
+   * @param sourceRoots The directories containing the saved source files.
+   */
+  private def withService(sourceRoots: Path*)(test: VerificationService => Unit): Unit = {
+    val classPath = System.getProperty("java.class.path").split(java.io.File.pathSeparator).toSeq.map(Path.of(_))
+    Using.resource(new VerificationService(sourceRoots, classPath))(test)
+  }
+
+  /**
+   * Reads the specified Java source file, present in the `src/test/resources` directory.
+   */
+  private def resource(fileName: String): String = Using.resource(Source.fromResource(fileName))(_.mkString)
+}
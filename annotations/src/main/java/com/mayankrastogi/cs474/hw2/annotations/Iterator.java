@@ -10,10 +10,13 @@ import java.lang.annotation.*;
  * with @{@link CurrentItem} and @{@link NextItem} must match the class specified in the {@link Iterator#value()}
  * of @{@link Iterator} annotation.
  * <p>
- * If methods annotated with @{@link IsDone} or @{@link NextItem} are {@code private}, a warning is issued by the
- * annotation processor, since this may make this iterator useless for its consumers. Instead of issuing a warning, an
- * error can be forced to be raised in this situation by setting the {@link Iterator#treatWarningsAsErrors()} to
- * {@code true}.
+ * Optionally, a class annotated with {@link Iterator} may have at most one method annotated with @{@link Advance},
+ * which lets consumers jump ahead by several items at once instead of calling the @{@link NextItem} method repeatedly.
+ * <p>
+ * If methods annotated with @{@link IsDone}, @{@link NextItem} or @{@link Advance} are {@code private}, a warning is
+ * issued by the annotation processor, since this may make this iterator useless for its consumers. Instead of issuing a
+ * warning, an error can be forced to be raised in this situation by setting the
+ * {@link Iterator#treatWarningsAsErrors()} to {@code true}.
  */
 @Retention(RetentionPolicy.SOURCE)
 @Target(ElementType.TYPE)
@@ -25,8 +28,8 @@ public @interface Iterator {
     Class<?> value();
 
     /**
-     * @return Force errors to be raised instead of warnings if methods with @{@link IsDone} or @{@link NextItem} are
-     * {@code private}.
+     * @return Force errors to be raised instead of warnings if methods with @{@link IsDone}, @{@link NextItem} or
+     * @{@link Advance} are {@code private}.
      */
     boolean treatWarningsAsErrors() default false;
 
@@ -77,4 +80,25 @@ public @interface Iterator {
     @Documented
     @interface NextItem {
     }
+
+    /**
+     * Denotes that this method advances the iterator by the given number of items and returns the item it lands on.
+     * <p>
+     * This method is optional. It must take exactly one parameter of type {@code int}, which is the number of items to
+     * advance by, and its return type must match the class specified in the {@link Iterator#value()} of
+     * @{@link Iterator} annotation. Calling it with {@code n} should be equivalent to calling the method annotated with
+     * @{@link NextItem} {@code n} times and returning the last item, but implementations are expected to do this
+     * faster than a linear scan wherever the underlying aggregate allows it. If this method is marked {@code private},
+     * a warning is generated during annotation processing. If {@link Iterator#treatWarningsAsErrors()} is set to
+     * {@code true} on the enclosing @{@link Iterator} annotated class, an error is raised instead of a warning.
+     * <p>
+     * Ideally, this method should throw an {@link IllegalArgumentException} if {@code n} is less than {@code 1}, and a
+     * {@link java.util.NoSuchElementException} if fewer than {@code n} items are remaining. This behavior, however, is
+     * not enforced at compile-time during annotation processing.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.METHOD)
+    @Documented
+    @interface Advance {
+    }
 }
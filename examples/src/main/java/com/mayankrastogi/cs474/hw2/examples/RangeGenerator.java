@@ -51,4 +51,27 @@ public class RangeGenerator {
         if (isDone()) throw new NoSuchElementException("All items have been generated in the specified range.");
         return ++currentValue;
     }
+
+    /**
+     * Skips ahead in the range and returns the integer that is {@code n} positions after the current one.
+     * <p>
+     * This is equivalent to calling {@link #next()} {@code n} times, but takes constant time regardless of {@code n}.
+     * An {@link IllegalArgumentException} is thrown if {@code n} is less than {@code 1}, and a
+     * {@link NoSuchElementException} is thrown, without advancing the iterator, if fewer than {@code n} integers are
+     * remaining in the range.
+     *
+     * @param n The number of integers to advance by.
+     * @return The integer reached after advancing.
+     */
+    @Iterator.Advance
+    public int advance(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Number of integers to advance by must be at least 1, but was " + n);
+        }
+        if ((long) maxValue - currentValue < n) {
+            throw new NoSuchElementException("Fewer than " + n + " integers are remaining in the specified range.");
+        }
+        currentValue += n;
+        return currentValue;
+    }
 }
@@ -0,0 +1,231 @@
+package com.mayankrastogi.cs474.hw2.examples;
+
+import com.mayankrastogi.cs474.hw2.annotations.IterableAggregate;
+import com.mayankrastogi.cs474.hw2.annotations.Iterator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * A generic class that holds a reference to a tree stored in a preorder-encoded file.
+ * <p>
+ * Unlike {@link Tree}, the nodes of this tree are never loaded into memory all at once. Instead, the file is parsed
+ * lazily while it is being iterated, so that a depth-first traversal needs memory proportional to the depth of the tree
+ * rather than its size. This makes it suitable for hierarchies that are too large to be materialized as {@link Node}s.
+ * <p>
+ * The file must contain one node per line, in depth-first (preorder) order. Each line consists of the depth of the node
+ * (the root being at depth {@code 0}), followed by a tab character and the data stored in the node. The depth of a node
+ * can be at most one more than the depth of the node on the previous line. For example, the following file encodes a
+ * root {@code A} with two children {@code B} and {@code D}, where {@code B} has a child {@code C}:
+ * <pre>
+ * 0	A
+ * 1	B
+ * 2	C
+ * 1	D
+ * </pre>
+ *
+ * @param <T> The type of data stored in a node of this tree.
+ */
+@IterableAggregate(StreamingTree.StreamingTreeIterator.class)
+public class StreamingTree<T> {
+
+    private final Path file;
+    private final Function<String, T> dataParser;
+
+    /**
+     * A generic class that holds a reference to a tree stored in a preorder-encoded file.
+     *
+     * @param file       The file containing the preorder-encoded tree.
+     * @param dataParser Converts the data on each line of the file into the data to be stored in the node.
+     */
+    public StreamingTree(Path file, Function<String, T> dataParser) {
+        this.file = file;
+        this.dataParser = dataParser;
+    }
+
+    /**
+     * Creates a {@link StreamingTreeIterator} which can be used to iterate through the nodes in the tree in depth-first
+     * order, while they are being read from the file.
+     * <p>
+     * The file is opened when this method is called and closed once the iterator has finished iterating through all
+     * the nodes. If the iteration is abandoned midway, the iterator must be closed explicitly.
+     *
+     * @return The iterator.
+     * @throws UncheckedIOException If the file could not be opened.
+     */
+    @IterableAggregate.IteratorFactory
+    public StreamingTreeIterator dfsIterator() {
+        try {
+            return new StreamingTreeIterator(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open tree file " + file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingTree(file: " + file + ")";
+    }
+
+    /**
+     * An iterator for accessing {@link StreamedNode}s of a {@link StreamingTree} in depth-first order, while they are
+     * being read from the file.
+     * <p>
+     * Only the ancestors of the current node are retained by the iterator, which are reachable through
+     * {@link StreamedNode#parent}.
+     */
+    @Iterator(StreamedNode.class)
+    public class StreamingTreeIterator implements Closeable {
+        private final BufferedReader reader;
+        private StreamedNode<T> currentNode;
+
+        // The line to be parsed on the next call to next(); null once the end of the file has been reached
+        private String nextLine;
+        private long lineNumber;
+
+        /**
+         * An iterator for accessing {@link StreamedNode}s of a {@link StreamingTree} in depth-first order.
+         *
+         * @param reader The reader positioned at the beginning of the preorder-encoded file.
+         */
+        private StreamingTreeIterator(BufferedReader reader) {
+            this.reader = reader;
+            readNextLine();
+        }
+
+        /**
+         * The current {@link StreamedNode} object in the current state of iteration.
+         *
+         * @return The current {@link StreamedNode} in the iteration; {@code null} if the {@link #next()} method wasn't
+         * called before calling this method.
+         */
+        @Iterator.CurrentItem
+        public StreamedNode<T> currentNode() {
+            return currentNode;
+        }
+
+        /**
+         * Tells whether the iterator has finished iterating through all the nodes in the file.
+         *
+         * @return {@code true} if all the nodes have been iterated, {@code false} otherwise.
+         */
+        @Iterator.IsDone
+        public boolean isDone() {
+            return nextLine == null;
+        }
+
+        /**
+         * The next {@link StreamedNode} object in the current state of iteration.
+         * <p>
+         * A {@link NoSuchElementException} is thrown if this method is called after all the nodes in the file have been
+         * iterated, and an {@link IllegalStateException} is thrown if the next line in the file is malformed. The file
+         * is closed before the {@link IllegalStateException} is thrown, after which the iterator is done.
+         *
+         * @return The next {@link StreamedNode} in the iteration.
+         */
+        @Iterator.NextItem
+        public StreamedNode<T> next() {
+            if (isDone()) throw new NoSuchElementException("All nodes in the tree have been traversed.");
+
+            int separatorIndex = nextLine.indexOf('\t');
+            int depth = parseDepth(separatorIndex);
+
+            // Walk up from the previous node to find the parent of the new node, which is the closest ancestor one
+            // level above it. Nodes deeper than that have no more children left in the file and can be discarded.
+            StreamedNode<T> parent = currentNode;
+            while (parent != null && parent.depth >= depth) {
+                parent = parent.parent;
+            }
+            if (depth > 0 && (parent == null || parent.depth != depth - 1)) {
+                throw malformedLine("a node at depth " + depth + " must follow a node at depth " + (depth - 1) +
+                        " or deeper");
+            }
+
+            currentNode = new StreamedNode<>(dataParser.apply(nextLine.substring(separatorIndex + 1)), depth, parent);
+            readNextLine();
+            return currentNode();
+        }
+
+        /**
+         * Closes the underlying file. Calling this method is only required if the iteration is abandoned before all the
+         * nodes have been iterated.
+         *
+         * @throws IOException If the file could not be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            nextLine = null;
+            reader.close();
+        }
+
+        private int parseDepth(int separatorIndex) {
+            if (separatorIndex < 0) throw malformedLine("the depth must be separated from the data by a tab");
+
+            int depth;
+            try {
+                depth = Integer.parseInt(nextLine, 0, separatorIndex, 10);
+            } catch (NumberFormatException e) {
+                throw malformedLine("the depth must be an integer");
+            }
+            if (depth < 0) throw malformedLine("the depth must not be negative");
+            if (currentNode == null && depth != 0) throw malformedLine("the first node must be the root at depth 0");
+            if (currentNode != null && depth == 0) throw malformedLine("a tree can only have one root");
+            return depth;
+        }
+
+        private IllegalStateException malformedLine(String reason) {
+            var exception = new IllegalStateException("Malformed line " + lineNumber + " in " + file + ": " + reason);
+
+            // The rest of the file cannot be parsed, so release it right away. Consumers iterating through a bridge
+            // have no handle to this iterator, and would not be able to close it themselves.
+            try {
+                close();
+            } catch (IOException e) {
+                exception.addSuppressed(e);
+            }
+            return exception;
+        }
+
+        private void readNextLine() {
+            try {
+                nextLine = reader.readLine();
+                lineNumber++;
+                // Release the file as soon as the last node has been read
+                if (nextLine == null) reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read tree file " + file, e);
+            }
+        }
+    }
+}
+
+/**
+ * Models a node in the {@link StreamingTree}.
+ * <p>
+ * Since the tree is read from a file in depth-first order, a node only knows about its ancestors and not its children.
+ *
+ * @param <T> The type of `data` to be stored in the node.
+ */
+class StreamedNode<T> {
+    final T data;
+    final int depth;
+    final StreamedNode<T> parent;
+
+    StreamedNode(T data, int depth, StreamedNode<T> parent) {
+        this.data = data;
+        this.depth = depth;
+        this.parent = parent;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StreamedNode(data: %s, depth: %d)", data, depth);
+    }
+}
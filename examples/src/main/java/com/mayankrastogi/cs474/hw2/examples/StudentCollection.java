@@ -116,6 +116,30 @@ public class StudentCollection implements Iterable<Student> {
                         " students in the collection");
             }
         }
+
+        /**
+         * Skips ahead in the collection and returns the {@link Student} that is {@code n} positions after the current
+         * one.
+         * <p>
+         * Since the students are backed by an {@link ArrayList}, this takes constant time regardless of {@code n}. An
+         * {@link IllegalArgumentException} is thrown if {@code n} is less than {@code 1}, and a
+         * {@link NoSuchElementException} is thrown, without advancing the iterator, if fewer than {@code n} students
+         * are remaining in the collection.
+         *
+         * @param n The number of students to advance by.
+         * @return The {@link Student} object reached after advancing.
+         */
+        @Iterator.Advance
+        public Student advance(int n) {
+            if (n < 1) {
+                throw new IllegalArgumentException("Number of students to advance by must be at least 1, but was " + n);
+            }
+            if ((long) studentsList.size() - 1 - currentIndex < n) {
+                throw new NoSuchElementException("Fewer than " + n + " students are remaining in the collection");
+            }
+            currentIndex += n;
+            return current();
+        }
     }
 }
 
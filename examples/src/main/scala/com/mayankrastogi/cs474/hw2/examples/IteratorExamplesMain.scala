@@ -1,5 +1,7 @@
 package com.mayankrastogi.cs474.hw2.examples
 
+import java.nio.file.Files
+
 import com.typesafe.scalalogging.LazyLogging
 
 import scala.jdk.CollectionConverters._
@@ -17,17 +19,24 @@ object IteratorExamplesMain extends App with LazyLogging {
       |The iterator design pattern provides a way to access the elements of an aggregate object sequentially without
       |exposing its underlying representation.
       |
-      |This application demonstrates 3 classes that use the iterator pattern and are annotated with different variations
+      |This application demonstrates 4 classes that use the iterator pattern and are annotated with different variations
       |of the @Iterator and @IterableAggregate (and their nested) annotations:
       |
       |  1. StudentCollection: A class annotated with @IterableAggregate that implements `java.lang.Iterable`. It's
       |       iterator class is annotated with @Iterator and implements `java.util.Iterator`. The iterator returns a
       |       `Student` object during iteration.
       |  2. RangeGenerator: A class annotated with @Iterator that generates a primitive `int` value on each iteration
-      |       within the range specified while constructing its object.
+      |       within the range specified while constructing its object. Its method annotated with @Advance jumps ahead
+      |       in the range in constant time.
       |  3. Tree: A class annotated with @IterableAggregate that provides two methods annotated with @IteratorFactory.
       |       The two methods return instances of `Tree.TreeIterator` that allow the user to iterate the nodes of the
       |       tree in depth-first and breadth-first orders.
+      |  4. StreamingTree: A class annotated with @IterableAggregate that reads a preorder-encoded tree from a file. Its
+      |       `dfsIterator()` returns a `StreamingTree.StreamingTreeIterator` that yields the nodes while the file is
+      |       being parsed, without loading the whole tree into memory.
+      |
+      |The classes which do not implement `java.util.Iterator` or `java.lang.Iterable` themselves are iterated through
+      |the bridges generated for them by the annotation processor, e.g. `RangeGeneratorBridge` and `TreeIterables`.
       |""".stripMargin)
 
   printExampleName("Student Collection Iteration Example")
@@ -39,6 +48,9 @@ object IteratorExamplesMain extends App with LazyLogging {
   printExampleName("Tree Iteration Example")
   runTreeExample()
 
+  printExampleName("StreamingTree Iteration Example")
+  runStreamingTreeExample()
+
   private def printExampleName(exampleName: String): Unit = {
     println(
       s"""
@@ -79,9 +91,15 @@ object IteratorExamplesMain extends App with LazyLogging {
     logger.debug(String.format("Creating a RangeGenerator(from: %s, to: %s)...", from, to))
     val range = new RangeGenerator(from, to)
 
-    logger.debug("Iterating RangeGenerator...")
-    while (!range.isDone)
-      println(range.next)
+    logger.debug("Iterating RangeGenerator using the generated RangeGeneratorBridge...")
+    new RangeGeneratorBridge(range).asScala.foreach(println)
+
+    logger.debug("Advancing through a RangeGenerator using the method annotated with @Advance...")
+    val largeRange = new RangeGenerator(from, 2000000)
+
+    println("Every millionth integer:")
+    while (!largeRange.isDone)
+      println(largeRange.advance(1000000))
 
     logger.debug("RangeGenerator Iteration Example Finished.")
   }
@@ -119,19 +137,42 @@ object IteratorExamplesMain extends App with LazyLogging {
     logger.debug("Iterating tree using `dfsIterator()`...")
 
     println("Depth-first tree traversal:")
-    printTree(tree.dfsIterator())
+    printTree(TreeIterables.dfsIterator(tree))
 
     logger.debug("Iterating tree using `bfsIterator()`...")
 
     println("Breadth-first tree traversal:")
-    printTree(tree.bfsIterator())
+    printTree(TreeIterables.bfsIterator(tree))
 
     logger.debug("Tree Iteration Example Finished.")
 
-    def printTree[T](iterator: Tree[T]#TreeIterator): Unit = {
-      while (!iterator.isDone)
-        print("  " + iterator.next.data)
+    // The generated TreeIterables provide the iterators of the tree as java.lang.Iterables
+    def printTree[T](nodes: java.lang.Iterable[Node[T]]): Unit = {
+      nodes.asScala.foreach(node => print("  " + node.data))
       println()
     }
   }
+
+  private def runStreamingTreeExample(): Unit = {
+    logger.debug("Writing the sample tree to a preorder-encoded file...")
+
+    // Same tree as in the tree iteration example, encoded as one "<depth>\t<data>" line per node in depth-first order
+    val file = Files.createTempFile("sample-tree", ".tree")
+    file.toFile.deleteOnExit()
+    Files.write(file, List("0\t1", "1\t2", "2\t5", "2\t6", "1\t3", "2\t7", "2\t8", "1\t4", "2\t9", "2\t10").asJava)
+    logger.debug("file: " + file)
+
+    val tree = new StreamingTree[Integer](file, (data: String) => Integer.valueOf(data))
+    logger.debug("tree: " + tree)
+
+    logger.debug("Iterating tree using `dfsIterator()`...")
+
+    println("Depth-first tree traversal while reading the file:")
+    StreamingTreeIterables.dfsIterator(tree).asScala.foreach { node =>
+      print("  " + node.data + (if (node.parent == null) "" else s"(parent: ${node.parent.data})"))
+    }
+    println()
+
+    logger.debug("StreamingTree Iteration Example Finished.")
+  }
 }
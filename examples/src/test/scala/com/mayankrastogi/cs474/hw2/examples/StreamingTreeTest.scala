@@ -0,0 +1,109 @@
+package com.mayankrastogi.cs474.hw2.examples
+
+import java.io.{BufferedReader, IOException}
+import java.nio.file.Files
+
+import org.junit.runner.RunWith
+import org.scalatest.FunSuite
+import org.scalatestplus.junit.JUnitRunner
+
+import scala.collection.mutable.ListBuffer
+
+/**
+ * Tests that the [[StreamingTree]] parses preorder-encoded tree files, and rejects malformed ones.
+ */
+@RunWith(classOf[JUnitRunner])
+class StreamingTreeTest extends FunSuite {
+
+  test("StreamingTreeIterator should yield the nodes of a tree in depth-first order, linked to their parents.") {
+    withTreeFile("0\tA\n1\tB\n2\tC\n1\tD\n") { tree =>
+      val nodes = iterate(tree.dfsIterator())
+      assert(nodes.map(node => (node.data, node.depth)) == Seq(("A", 0), ("B", 1), ("C", 2), ("D", 1)))
+      assert(nodes.map(node => Option(node.parent).map(_.data)) == Seq(None, Some("A"), Some("B"), Some("A")))
+    }
+  }
+
+  test("StreamingTreeIterator should be done right away for an empty file.") {
+    withTreeFile("") { tree =>
+      val iterator = tree.dfsIterator()
+      assert(iterator.isDone)
+      assertThrows[NoSuchElementException](iterator.next())
+    }
+  }
+
+  test("StreamingTreeIterator should only split a line on the first tab.") {
+    withTreeFile("0\tA\tB\n") { tree =>
+      assert(iterate(tree.dfsIterator()).map(_.data) == Seq("A\tB"))
+    }
+  }
+
+  test("StreamingTreeIterator should reject a line without a tab between the depth and the data.") {
+    assertMalformed("0 A\n", "the depth must be separated from the data by a tab")
+  }
+
+  test("StreamingTreeIterator should reject a depth that is not an integer.") {
+    assertMalformed("x\tA\n", "the depth must be an integer")
+  }
+
+  test("StreamingTreeIterator should reject a negative depth.") {
+    assertMalformed("-1\tA\n", "the depth must not be negative")
+  }
+
+  test("StreamingTreeIterator should reject a file whose first node is not at depth 0.") {
+    assertMalformed("1\tA\n", "the first node must be the root at depth 0")
+  }
+
+  test("StreamingTreeIterator should reject a second root.") {
+    assertMalformed("0\tA\n1\tB\n0\tC\n", "a tree can only have one root")
+  }
+
+  test("StreamingTreeIterator should reject a node that is more than one level deeper than the previous node.") {
+    assertMalformed("0\tA\n1\tB\n3\tC\n", "a node at depth 3 must follow a node at depth 2 or deeper")
+  }
+
+  /**
+   * Iterates a tree file with a malformed line, and asserts that the iterator fails with the given reason, after
+   * closing the file.
+   */
+  private def assertMalformed(contents: String, reason: String): Unit = {
+    withTreeFile(contents) { tree =>
+      val iterator = tree.dfsIterator()
+      val exception = intercept[IllegalStateException](iterate(iterator))
+
+      assert(exception.getMessage.endsWith(reason))
+      assert(iterator.isDone)
+      assert(isClosed(iterator))
+    }
+  }
+
+  private def iterate(iterator: StreamingTree[String]#StreamingTreeIterator): Seq[StreamedNode[String]] = {
+    val nodes = ListBuffer.empty[StreamedNode[String]]
+    while (!iterator.isDone) nodes += iterator.next()
+    nodes.toSeq
+  }
+
+  /**
+   * Tells whether the file read by the iterator has been closed. The reader is not exposed by the iterator, since
+   * consumers are expected to close the iterator itself.
+   */
+  private def isClosed(iterator: StreamingTree[String]#StreamingTreeIterator): Boolean = {
+    val field = classOf[StreamingTree[String]#StreamingTreeIterator].getDeclaredField("reader")
+    field.setAccessible(true)
+    try {
+      field.get(iterator).asInstanceOf[BufferedReader].ready()
+      false
+    } catch {
+      case _: IOException => true
+    }
+  }
+
+  private def withTreeFile(contents: String)(test: StreamingTree[String] => Unit): Unit = {
+    val file = Files.createTempFile("streaming-tree", ".tree")
+    try {
+      Files.writeString(file, contents)
+      test(new StreamingTree[String](file, (data: String) => data))
+    } finally {
+      Files.delete(file)
+    }
+  }
+}